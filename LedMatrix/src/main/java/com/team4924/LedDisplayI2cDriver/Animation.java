@@ -0,0 +1,154 @@
+package com.team4924.LedDisplayI2cDriver;
+
+import java.io.ByteArrayOutputStream;
+
+import static com.team4924.LedDisplayI2cDriver.Constants.*;
+
+/**
+ * A sequence of bitmaps precompiled into the contents of each display of a {@link Display}.
+ * Every {@link Constants#ANIMATION_KEYFRAME_INTERVAL}th frame is stored in full, and the frames
+ * in between only store the rows of the displays that changed since the frame before, so long
+ * animations take little memory and playing them only writes what changes.
+ *
+ * Each frame is stored as a display count followed by, for each changed display, its index, a
+ * mask of the changed rows and the changed rows. Keyframes list every display with every row.
+ *
+ * @see AnimationPlayer
+ */
+public class Animation implements AnimationSource {
+
+    private final int boardCount;
+    private final int rotation;
+    private final long frameMillis;
+    private final int[] frameOffsets;
+    private final byte[] data;
+
+    /**
+     * Compiles bitmaps for the current size and rotation of a display.
+     * @param display The display the animation is played on
+     * @param frames The bitmaps of the frames, each drawn at the top left corner
+     * @param frameMillis How long each frame is shown
+     */
+    public Animation(Display display, byte[][][] frames, long frameMillis) {
+        boardCount = display.getBoardCount();
+        if(boardCount > 0xFF) {
+            throw new IllegalArgumentException("Animations support up to 255 displays");
+        }
+        rotation = display.getRotation();
+        this.frameMillis = frameMillis;
+        frameOffsets = new int[frames.length + 1];
+
+        Framebuffer framebuffer = display.newFramebuffer(rotation);
+        long[] previous = new long[boardCount];
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for(int f = 0; f < frames.length; f++) {
+            frameOffsets[f] = out.size();
+            framebuffer.clear();
+            framebuffer.drawBitmap(0, 0, frames[f]);
+            boolean keyframe = isKeyframe(f);
+
+            int changed = 0;
+            for(int i = 0; i < boardCount; i++) {
+                if(keyframe || display.getBoardTile(framebuffer, rotation, i) != previous[i]) {
+                    changed++;
+                }
+            }
+            out.write(changed);
+            for(int i = 0; i < boardCount; i++) {
+                long tile = display.getBoardTile(framebuffer, rotation, i);
+                if(!keyframe && tile == previous[i]) {
+                    continue;
+                }
+                int rowMask = 0;
+                for(int r = 0; r < DISPLAY_HEIGHT; r++) {
+                    if(keyframe || Tiles.row(tile, r) != Tiles.row(previous[i], r)) {
+                        rowMask |= 1 << r;
+                    }
+                }
+                out.write(i);
+                out.write(rowMask);
+                for(int r = 0; r < DISPLAY_HEIGHT; r++) {
+                    if((rowMask >> r & 1) == 1) {
+                        out.write(Tiles.row(tile, r));
+                    }
+                }
+                previous[i] = tile;
+            }
+        }
+        frameOffsets[frames.length] = out.size();
+        data = out.toByteArray();
+    }
+
+    @Override
+    public int getFrameCount() {
+        return frameOffsets.length - 1;
+    }
+
+    @Override
+    public long getFrameMillis() {
+        return frameMillis;
+    }
+
+    /**
+     * Returns the size of the compiled frames.
+     * @return The size in bytes
+     */
+    public int getSize() {
+        return data.length;
+    }
+
+    @Override
+    public int getBoardCount() {
+        return boardCount;
+    }
+
+    @Override
+    public int getRotation() {
+        return rotation;
+    }
+
+    /**
+     * Decodes a frame, starting from the nearest keyframe when moving backwards or far ahead.
+     */
+    @Override
+    public void seek(int from, int to, long[] tiles) {
+        if(to < from || to - from > ANIMATION_KEYFRAME_INTERVAL) {
+            from = to - to % ANIMATION_KEYFRAME_INTERVAL - 1;
+        }
+        while(from < to) {
+            from++;
+            decode(from, tiles);
+        }
+    }
+
+    /**
+     * Returns whether a frame is stored in full, so it can be decoded without the frames before it.
+     * @param frame The index of the frame
+     * @return Whether the frame is a keyframe
+     */
+    static boolean isKeyframe(int frame) {
+        return frame % ANIMATION_KEYFRAME_INTERVAL == 0;
+    }
+
+    /**
+     * Applies a frame to the contents of the displays.
+     * @param frame The index of the frame
+     * @param tiles The tile of each display, holding the frame before unless the frame is a
+     *              keyframe; updated in place
+     */
+    void decode(int frame, long[] tiles) {
+        int offset = frameOffsets[frame];
+        int changed = data[offset++] & 0xFF;
+        for(int c = 0; c < changed; c++) {
+            int board = data[offset++] & 0xFF;
+            int rowMask = data[offset++] & 0xFF;
+            long tile = tiles[board];
+            for(int r = 0; r < DISPLAY_HEIGHT; r++) {
+                if((rowMask >> r & 1) == 1) {
+                    tile = tile & ~(0xFFL << r * 8) | (long)(data[offset++] & 0xFF) << r * 8;
+                }
+            }
+            tiles[board] = tile;
+        }
+    }
+}
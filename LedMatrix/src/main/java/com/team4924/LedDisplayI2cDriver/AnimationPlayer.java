@@ -0,0 +1,211 @@
+package com.team4924.LedDisplayI2cDriver;
+
+import java.io.IOException;
+
+import static com.team4924.LedDisplayI2cDriver.Constants.*;
+
+/**
+ * Plays an {@link Animation} or {@link AnimationStream} on a {@link Display} with the timing of
+ * the animation. Only the displays whose contents changed are written, and of those only the
+ * changed rows are sent.
+ * Frames that are late are skipped, so a slow loop does not slow the animation down.
+ *
+ * Either call {@link #update()} from the loop of the OpMode, or call {@link #start()} to let a
+ * background thread play the animation. The animation writes to the displays directly, so the
+ * next {@link Display#writeDisplay()} replaces it with the contents of the display's buffer.
+ */
+public class AnimationPlayer {
+
+    private final Display display;
+
+    private AnimationSource animation;
+    private boolean loop;
+    private boolean playing;
+    private long startTime;
+    private int frame;
+    private long[] tiles;
+    private long[] writtenTiles;
+    private boolean[] written;
+    private IOException error;
+
+    private final Object writeLock = new Object();
+    private long[] sendTiles = new long[0];
+    private boolean[] sendBoards = new boolean[0];
+
+    private Thread player;
+
+    /**
+     * @param display The display to play animations on
+     */
+    public AnimationPlayer(Display display) {
+        this.display = display;
+    }
+
+    /**
+     * Starts playing an animation from its first frame, replacing the playing animation.
+     * @param animation The animation, made for the display
+     * @param loop Whether the animation starts over after its last frame
+     */
+    public synchronized void play(AnimationSource animation, boolean loop) {
+        this.animation = animation;
+        this.loop = loop;
+        tiles = new long[animation.getBoardCount()];
+        writtenTiles = new long[animation.getBoardCount()];
+        written = new boolean[animation.getBoardCount()];
+        frame = -1;
+        error = null;
+        startTime = System.nanoTime();
+        playing = animation.getFrameCount() > 0;
+    }
+
+    /**
+     * Stops the playing animation, leaving its current frame on the display.
+     */
+    public synchronized void cancel() {
+        playing = false;
+    }
+
+    /**
+     * Returns whether an animation is playing.
+     * @return Whether a looping animation has not been cancelled or an animation has not finished
+     */
+    public synchronized boolean isPlaying() {
+        return playing;
+    }
+
+    /**
+     * Returns the error that stopped the last animation, if its frames could not be read.
+     * @return The error, or null if the animation played without one
+     */
+    public synchronized IOException getError() {
+        return error;
+    }
+
+    /**
+     * Shows the frame of the playing animation that is due, if it is not shown yet. The displays
+     * are written after the player is unlocked, so the other methods do not wait for the I2C bus.
+     * @return Whether any display was written
+     */
+    public boolean update() {
+        // Holding the write lock while choosing the frame keeps frames written in order
+        synchronized(writeLock) {
+            int boards;
+            int rotation;
+            synchronized(this) {
+                boards = prepareFrame();
+                rotation = boards > 0 ? animation.getRotation() : 0;
+            }
+            if(boards == 0) {
+                return false;
+            }
+            for(int i = 0; i < boards; i++) {
+                if(sendBoards[i]) {
+                    display.writeBoard(i, sendTiles[i], rotation);
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Finds the frame of the playing animation that is due and copies the tiles that changed
+     * since the last frame written into the send buffers. Must be called while holding the write
+     * lock and the lock of the player.
+     * @return The amount of displays in the send buffers, or 0 if no display has to be written
+     */
+    private int prepareFrame() {
+        if(!playing) {
+            return 0;
+        }
+        int frameCount = animation.getFrameCount();
+        long due = (System.nanoTime() - startTime) / (Math.max(1, animation.getFrameMillis()) * 1000000);
+        int target;
+        if(due < frameCount) {
+            target = (int)due;
+        } else if(loop) {
+            target = (int)(due % frameCount);
+        } else {
+            target = frameCount - 1;
+            playing = false;
+        }
+        if(target == frame) {
+            return 0;
+        }
+
+        try {
+            animation.seek(frame, target, tiles);
+        } catch(IOException e) {
+            error = e;
+            playing = false;
+            return 0;
+        }
+        frame = target;
+
+        if(sendTiles.length < tiles.length) {
+            sendTiles = new long[tiles.length];
+            sendBoards = new boolean[tiles.length];
+        }
+        boolean changed = false;
+        for(int i = 0; i < tiles.length; i++) {
+            sendBoards[i] = !written[i] || tiles[i] != writtenTiles[i];
+            if(sendBoards[i]) {
+                sendTiles[i] = tiles[i];
+                writtenTiles[i] = tiles[i];
+                written[i] = true;
+                changed = true;
+            }
+        }
+        return changed ? tiles.length : 0;
+    }
+
+    /**
+     * Starts a background thread that plays the animations.
+     */
+    public synchronized void start() {
+        if(player != null) {
+            return;
+        }
+        player = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                step();
+            }
+        }, "Display animation");
+        player.setDaemon(true);
+        player.start();
+    }
+
+    /**
+     * Stops the background thread started by {@link #start()}.
+     */
+    public synchronized void stop() {
+        if(player != null) {
+            player.interrupt();
+            player = null;
+        }
+    }
+
+    /**
+     * Shows frames until the background thread is stopped.
+     */
+    private void step() {
+        Thread thread = Thread.currentThread();
+        while(true) {
+            synchronized(this) {
+                if(player != thread) {
+                    return;
+                }
+            }
+            update();
+            long sleep;
+            synchronized(this) {
+                sleep = playing ? Math.max(1, animation.getFrameMillis() / 4) : EFFECT_STEP_MILLIS;
+            }
+            try {
+                Thread.sleep(sleep);
+            } catch(InterruptedException e) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.team4924.LedDisplayI2cDriver;
+
+import java.io.IOException;
+
+/**
+ * The frames of an animation, as the contents of each display of a {@link Display}.
+ *
+ * @see Animation
+ * @see AnimationStream
+ * @see AnimationPlayer
+ */
+public interface AnimationSource {
+
+    /**
+     * Returns the amount of frames.
+     * @return The frames
+     */
+    int getFrameCount();
+
+    /**
+     * Returns how long each frame is shown.
+     * @return The time in milliseconds
+     */
+    long getFrameMillis();
+
+    /**
+     * Returns the amount of displays the frames are made for.
+     * @return The displays, which are numbered from left to right top to bottom
+     */
+    int getBoardCount();
+
+    /**
+     * Returns the rotation of the display the frames are made for.
+     * @return The rotation; 0-3
+     */
+    int getRotation();
+
+    /**
+     * Decodes a frame into the contents of the displays.
+     * @param from The index of the frame the tiles hold, or -1 if they hold no frame
+     * @param to The index of the frame to decode
+     * @param tiles The tile of each display; updated in place
+     * @throws IOException If the frame cannot be read
+     */
+    void seek(int from, int to, long[] tiles) throws IOException;
+}
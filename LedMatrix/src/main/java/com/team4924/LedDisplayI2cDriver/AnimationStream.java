@@ -0,0 +1,187 @@
+package com.team4924.LedDisplayI2cDriver;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+
+import static com.team4924.LedDisplayI2cDriver.Constants.*;
+
+/**
+ * An animation file written by {@link AnimationWriter}, streamed from storage while it plays.
+ * Only a small read buffer is held in memory, and frames are decoded straight into the contents
+ * of the displays, so long animations do not take up the heap.
+ *
+ * Frames are read in order; skipping ahead reads past the frames in between without decoding
+ * them, and going back reopens the file.
+ */
+public class AnimationStream implements AnimationSource, Closeable {
+
+    private final File file;
+    private final boolean runLength;
+    private final int rotation;
+    private final int boardCount;
+    private final long frameMillis;
+    private final int frameCount;
+
+    private DataInputStream in;
+    private int nextFrame;
+
+    /**
+     * Opens an animation file and checks it was made for a display.
+     * @param file The animation file
+     * @param display The display the animation is played on
+     * @throws IOException If the file cannot be read, is not an animation file or was made for a
+     *                     display of another size
+     */
+    public AnimationStream(File file, Display display) throws IOException {
+        this.file = file;
+        in = open();
+        try {
+            if(in.readInt() != ANIMATION_FILE_MAGIC) {
+                throw new IOException(file + " is not an animation file");
+            }
+            int version = in.readUnsignedByte();
+            if(version != ANIMATION_FILE_VERSION) {
+                throw new IOException(file + " has unsupported version " + version);
+            }
+            runLength = (in.readUnsignedByte() & ANIMATION_FILE_RUN_LENGTH) != 0;
+            int tilesHigh = in.readUnsignedByte();
+            int tilesWide = in.readUnsignedByte();
+            rotation = in.readUnsignedByte();
+            boardCount = in.readUnsignedShort();
+            frameMillis = in.readInt();
+            frameCount = in.readInt();
+            if(tilesHigh != display.getTilesHigh() || tilesWide != display.getTilesWide() || boardCount != display.getBoardCount()) {
+                throw new IOException(file + " was made for a display of " + tilesHigh + "x" + tilesWide + " displays");
+            }
+        } catch(IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public int getFrameCount() {
+        return frameCount;
+    }
+
+    @Override
+    public long getFrameMillis() {
+        return frameMillis;
+    }
+
+    @Override
+    public int getBoardCount() {
+        return boardCount;
+    }
+
+    @Override
+    public int getRotation() {
+        return rotation;
+    }
+
+    /**
+     * Reads a frame, reopening the file if it was read past the frame.
+     */
+    @Override
+    public synchronized void seek(int from, int to, long[] tiles) throws IOException {
+        try {
+            read(to, tiles);
+        } catch(IOException e) {
+            nextFrame = Integer.MAX_VALUE; // the position in the file is unknown, so reopen it next time
+            throw e;
+        }
+    }
+
+    /**
+     * Closes the file.
+     * @throws IOException If the file cannot be closed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        in.close();
+    }
+
+    private void read(int to, long[] tiles) throws IOException {
+        if(to < nextFrame) {
+            in.close();
+            in = open();
+            skipFully(ANIMATION_FILE_HEADER_SIZE);
+            nextFrame = 0;
+        }
+        while(nextFrame < to) {
+            skipFully(in.readInt());
+            nextFrame++;
+        }
+        int length = in.readInt();
+        if(runLength) {
+            unpackBits(length, tiles);
+        } else if(length != boardCount * DISPLAY_HEIGHT) {
+            throw new IOException("Frame " + to + " of " + file + " is corrupt");
+        } else {
+            for(int i = 0; i < length; i++) {
+                setRow(tiles, i, in.readUnsignedByte());
+            }
+        }
+        nextFrame++;
+    }
+
+    private DataInputStream open() throws IOException {
+        return new DataInputStream(new BufferedInputStream(new FileInputStream(file), ANIMATION_STREAM_BUFFER_SIZE));
+    }
+
+    private void skipFully(int length) throws IOException {
+        while(length > 0) {
+            int skipped = in.skipBytes(length);
+            if(skipped <= 0) {
+                in.readByte();
+                skipped = 1;
+            }
+            length -= skipped;
+        }
+    }
+
+    /**
+     * Decodes a PackBits encoded frame into the contents of the displays.
+     * @param length The length of the encoded frame
+     * @param tiles The tile of each display; updated in place
+     * @throws IOException If the frame cannot be read or is corrupt
+     */
+    private void unpackBits(int length, long[] tiles) throws IOException {
+        int rows = boardCount * DISPLAY_HEIGHT;
+        int row = 0;
+        while(length > 0) {
+            int header = in.readByte();
+            length--;
+            if(header >= 0) {
+                if(row + header + 1 > rows || header + 1 > length) {
+                    break;
+                }
+                for(int i = 0; i <= header; i++) {
+                    setRow(tiles, row++, in.readUnsignedByte());
+                }
+                length -= header + 1;
+            } else if(header != -128) {
+                if(row + 1 - header > rows || length < 1) {
+                    break;
+                }
+                int value = in.readUnsignedByte();
+                for(int i = 0; i < 1 - header; i++) {
+                    setRow(tiles, row++, value);
+                }
+                length--;
+            }
+        }
+        if(row != rows || length != 0) {
+            throw new IOException("Frame " + nextFrame + " of " + file + " is corrupt");
+        }
+    }
+
+    private static void setRow(long[] tiles, int row, int value) {
+        int shift = (row % DISPLAY_HEIGHT) * 8;
+        tiles[row / DISPLAY_HEIGHT] = tiles[row / DISPLAY_HEIGHT] & ~(0xFFL << shift) | (long)value << shift;
+    }
+}
@@ -0,0 +1,137 @@
+package com.team4924.LedDisplayI2cDriver;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import static com.team4924.LedDisplayI2cDriver.Constants.*;
+
+/**
+ * Writes an animation file for {@link AnimationStream}, one frame at a time, so neither the
+ * bitmaps nor the file have to be held in memory.
+ *
+ * The file starts with a header of the magic "LEDA", the version, the flags, the height and
+ * width in # displays, the rotation, the amount of displays, the frame time in milliseconds and
+ * the amount of frames. Every frame follows as the length of its data and the 8 rows of each
+ * display, top row first, optionally run-length encoded with PackBits.
+ */
+public class AnimationWriter implements Closeable {
+
+    private final DataOutputStream out;
+    private final Display display;
+    private final int rotation;
+    private final int boardCount;
+    private final int frameCount;
+    private final boolean runLength;
+    private final Framebuffer framebuffer;
+    private final byte[] frame;
+    private final ByteArrayOutputStream encoded;
+    private int framesWritten;
+
+    /**
+     * Writes the header of an animation for the current size and rotation of a display.
+     * @param out The stream to write the file to
+     * @param display The display the animation is played on
+     * @param frameCount The amount of frames that will be written
+     * @param frameMillis How long each frame is shown
+     * @param runLength Whether the frames are run-length encoded, which shrinks animations with
+     *                  large blank or lit areas
+     * @throws IOException If the header cannot be written
+     */
+    public AnimationWriter(OutputStream out, Display display, int frameCount, long frameMillis, boolean runLength) throws IOException {
+        this.out = new DataOutputStream(out);
+        this.display = display;
+        this.frameCount = frameCount;
+        this.runLength = runLength;
+        rotation = display.getRotation();
+        boardCount = display.getBoardCount();
+        framebuffer = display.newFramebuffer(rotation);
+        frame = new byte[boardCount * DISPLAY_HEIGHT];
+        encoded = new ByteArrayOutputStream(frame.length + frame.length / 128 + 1);
+
+        this.out.writeInt(ANIMATION_FILE_MAGIC);
+        this.out.writeByte(ANIMATION_FILE_VERSION);
+        this.out.writeByte(runLength ? ANIMATION_FILE_RUN_LENGTH : 0);
+        this.out.writeByte(display.getTilesHigh());
+        this.out.writeByte(display.getTilesWide());
+        this.out.writeByte(rotation);
+        this.out.writeShort(boardCount);
+        this.out.writeInt((int)frameMillis);
+        this.out.writeInt(frameCount);
+    }
+
+    /**
+     * Writes the next frame.
+     * @param bitmap The bitmap of the frame, drawn at the top left corner
+     * @throws IOException If the frame cannot be written
+     */
+    public void writeFrame(byte[][] bitmap) throws IOException {
+        if(framesWritten == frameCount) {
+            throw new IllegalStateException("All " + frameCount + " frames were already written");
+        }
+        framebuffer.clear();
+        framebuffer.drawBitmap(0, 0, bitmap);
+        for(int i = 0; i < boardCount; i++) {
+            long tile = display.getBoardTile(framebuffer, rotation, i);
+            for(int r = 0; r < DISPLAY_HEIGHT; r++) {
+                frame[i * DISPLAY_HEIGHT + r] = (byte)Tiles.row(tile, r);
+            }
+        }
+
+        if(runLength) {
+            encoded.reset();
+            packBits(frame, encoded);
+            out.writeInt(encoded.size());
+            encoded.writeTo(out);
+        } else {
+            out.writeInt(frame.length);
+            out.write(frame);
+        }
+        framesWritten++;
+    }
+
+    /**
+     * Closes the stream, after checking every frame was written.
+     * @throws IOException If the stream cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        out.close();
+        if(framesWritten != frameCount) {
+            throw new IllegalStateException("Only " + framesWritten + " of " + frameCount + " frames were written");
+        }
+    }
+
+    /**
+     * Run-length encodes data with PackBits: a header n of 0 to 127 is followed by n + 1 literal
+     * bytes, and a header n of -1 to -127 by one byte repeated 1 - n times.
+     * @param data The data to encode
+     * @param out The stream to write the encoded data to
+     */
+    private static void packBits(byte[] data, ByteArrayOutputStream out) {
+        int i = 0;
+        while(i < data.length) {
+            int run = 1;
+            while(i + run < data.length && run < 128 && data[i + run] == data[i]) {
+                run++;
+            }
+            if(run >= 3) {
+                out.write(1 - run);
+                out.write(data[i]);
+                i += run;
+                continue;
+            }
+            int start = i;
+            while(i < data.length && i - start < 128) {
+                if(i + 2 < data.length && data[i] == data[i + 1] && data[i] == data[i + 2]) {
+                    break;
+                }
+                i++;
+            }
+            out.write(i - start - 1);
+            out.write(data, start, i - start);
+        }
+    }
+}
@@ -10,11 +10,32 @@ public class Constants {
     protected static final int BLINK_RATE_DEFAULT = 0;
     protected static final boolean FONT_COLOR_DEFAULT = true;
     protected static final int DEFAULT_LINE_LENGTH = 0;
+    protected static final boolean BULK_WRITE_DEFAULT = true;
+    protected static final int MAX_FLUSH_THREADS = 8;
+    protected static final int TEXT_STRIP_CACHE_SIZE = 8;
+    protected static final int TEXT_BUFFER_SIZE = 32; // grows to the longest CharSequence printed
+    protected static final int EFFECT_STEP_MILLIS = 10;
+    protected static final int ANIMATION_KEYFRAME_INTERVAL = 32;
+    protected static final int ANIMATION_STREAM_BUFFER_SIZE = 512;
+    protected static final int GRAYSCALE_MIN_BITS = 2;
+    protected static final int GRAYSCALE_MAX_BITS = 4;
+    protected static final int GRAYSCALE_MIN_SLOT_MICROS = 100; // keeps the 2^p weights of the bits when writes cost nothing
+
+    protected static final int ANIMATION_FILE_MAGIC = 0x4C454441; // "LEDA"
+    protected static final int ANIMATION_FILE_VERSION = 1;
+    protected static final int ANIMATION_FILE_RUN_LENGTH = 0x1; // flag for PackBits encoded frames
+    protected static final int ANIMATION_FILE_HEADER_SIZE = 19;
 
     protected static final int BYTE_LENGTH = 8;
 
     protected static final int DISPLAY_WIDTH = 8;
     protected static final int DISPLAY_HEIGHT = 8;
+    protected static final int DISPLAY_RAM_SIZE = 16; // rows are interleaved with unused bytes in display RAM
+
+    protected static final int KEY_RAM_ADDRESS = 0x40;
+    protected static final int KEY_RAM_SIZE = 6; // 3 columns of 13 key rows, 16 bits each
+    protected static final int INT_FLAG_ADDRESS = 0x60;
+    protected static final int KEY_SCAN_INTERVAL_DEFAULT = 20; // about one key scan cycle in milliseconds
 
     public static final boolean LED_ON = true;
     public static final boolean LED_OFF = false;
@@ -133,4 +154,111 @@ public class Constants {
     protected static final int CHARACTER_HEIGHT = 7;
     protected static final int TRACKING = 1; // space between characters
     protected static final int LEADING = 1; // space between lines
+
+    protected static final int SMALL_CHARACTER_WIDTH = 3;
+    protected static final int SMALL_CHARACTER_HEIGHT = 5;
+
+    // characters 32-126 in the same column format as CHARACTERS; lowercase letters use the uppercase glyphs
+    protected static final byte[] SMALL_CHARACTERS = {
+            (byte)0x00, (byte)0x00, (byte)0x00, // Space
+            (byte)0x00, (byte)0x17, (byte)0x00, // !
+            (byte)0x03, (byte)0x00, (byte)0x03, // "
+            (byte)0x1F, (byte)0x0A, (byte)0x1F, // #
+            (byte)0x12, (byte)0x1F, (byte)0x09, // $
+            (byte)0x19, (byte)0x04, (byte)0x13, // %
+            (byte)0x0A, (byte)0x15, (byte)0x1A, // &
+            (byte)0x00, (byte)0x03, (byte)0x00, // '
+            (byte)0x00, (byte)0x0E, (byte)0x11, // (
+            (byte)0x11, (byte)0x0E, (byte)0x00, // )
+            (byte)0x0A, (byte)0x04, (byte)0x0A, // *
+            (byte)0x04, (byte)0x0E, (byte)0x04, // +
+            (byte)0x10, (byte)0x08, (byte)0x00, // ,
+            (byte)0x04, (byte)0x04, (byte)0x04, // -
+            (byte)0x00, (byte)0x10, (byte)0x00, // .
+            (byte)0x18, (byte)0x04, (byte)0x03, // /
+            (byte)0x1F, (byte)0x11, (byte)0x1F, // 0
+            (byte)0x12, (byte)0x1F, (byte)0x10, // 1
+            (byte)0x1D, (byte)0x15, (byte)0x17, // 2
+            (byte)0x11, (byte)0x15, (byte)0x1F, // 3
+            (byte)0x07, (byte)0x04, (byte)0x1F, // 4
+            (byte)0x17, (byte)0x15, (byte)0x1D, // 5
+            (byte)0x1F, (byte)0x15, (byte)0x1D, // 6
+            (byte)0x01, (byte)0x1D, (byte)0x03, // 7
+            (byte)0x1F, (byte)0x15, (byte)0x1F, // 8
+            (byte)0x17, (byte)0x15, (byte)0x1F, // 9
+            (byte)0x00, (byte)0x0A, (byte)0x00, // :
+            (byte)0x10, (byte)0x0A, (byte)0x00, // ;
+            (byte)0x04, (byte)0x0A, (byte)0x11, // <
+            (byte)0x0A, (byte)0x0A, (byte)0x0A, // =
+            (byte)0x11, (byte)0x0A, (byte)0x04, // >
+            (byte)0x01, (byte)0x15, (byte)0x03, // ?
+            (byte)0x0E, (byte)0x15, (byte)0x16, // @
+            (byte)0x1E, (byte)0x05, (byte)0x1E, // A
+            (byte)0x1F, (byte)0x15, (byte)0x0A, // B
+            (byte)0x0E, (byte)0x11, (byte)0x11, // C
+            (byte)0x1F, (byte)0x11, (byte)0x0E, // D
+            (byte)0x1F, (byte)0x15, (byte)0x11, // E
+            (byte)0x1F, (byte)0x05, (byte)0x01, // F
+            (byte)0x0E, (byte)0x11, (byte)0x1D, // G
+            (byte)0x1F, (byte)0x04, (byte)0x1F, // H
+            (byte)0x11, (byte)0x1F, (byte)0x11, // I
+            (byte)0x08, (byte)0x10, (byte)0x0F, // J
+            (byte)0x1F, (byte)0x04, (byte)0x1B, // K
+            (byte)0x1F, (byte)0x10, (byte)0x10, // L
+            (byte)0x1F, (byte)0x06, (byte)0x1F, // M
+            (byte)0x1F, (byte)0x01, (byte)0x1E, // N
+            (byte)0x0E, (byte)0x11, (byte)0x0E, // O
+            (byte)0x1F, (byte)0x05, (byte)0x02, // P
+            (byte)0x0E, (byte)0x19, (byte)0x16, // Q
+            (byte)0x1F, (byte)0x05, (byte)0x1A, // R
+            (byte)0x12, (byte)0x15, (byte)0x09, // S
+            (byte)0x01, (byte)0x1F, (byte)0x01, // T
+            (byte)0x1F, (byte)0x10, (byte)0x1F, // U
+            (byte)0x0F, (byte)0x10, (byte)0x0F, // V
+            (byte)0x1F, (byte)0x0C, (byte)0x1F, // W
+            (byte)0x1B, (byte)0x04, (byte)0x1B, // X
+            (byte)0x03, (byte)0x1C, (byte)0x03, // Y
+            (byte)0x19, (byte)0x15, (byte)0x13, // Z
+            (byte)0x1F, (byte)0x11, (byte)0x00, // [
+            (byte)0x03, (byte)0x04, (byte)0x18, // \
+            (byte)0x00, (byte)0x11, (byte)0x1F, // ]
+            (byte)0x02, (byte)0x01, (byte)0x02, // ^
+            (byte)0x10, (byte)0x10, (byte)0x10, // _
+            (byte)0x01, (byte)0x02, (byte)0x00, // `
+            (byte)0x1E, (byte)0x05, (byte)0x1E, // a
+            (byte)0x1F, (byte)0x15, (byte)0x0A, // b
+            (byte)0x0E, (byte)0x11, (byte)0x11, // c
+            (byte)0x1F, (byte)0x11, (byte)0x0E, // d
+            (byte)0x1F, (byte)0x15, (byte)0x11, // e
+            (byte)0x1F, (byte)0x05, (byte)0x01, // f
+            (byte)0x0E, (byte)0x11, (byte)0x1D, // g
+            (byte)0x1F, (byte)0x04, (byte)0x1F, // h
+            (byte)0x11, (byte)0x1F, (byte)0x11, // i
+            (byte)0x08, (byte)0x10, (byte)0x0F, // j
+            (byte)0x1F, (byte)0x04, (byte)0x1B, // k
+            (byte)0x1F, (byte)0x10, (byte)0x10, // l
+            (byte)0x1F, (byte)0x06, (byte)0x1F, // m
+            (byte)0x1F, (byte)0x01, (byte)0x1E, // n
+            (byte)0x0E, (byte)0x11, (byte)0x0E, // o
+            (byte)0x1F, (byte)0x05, (byte)0x02, // p
+            (byte)0x0E, (byte)0x19, (byte)0x16, // q
+            (byte)0x1F, (byte)0x05, (byte)0x1A, // r
+            (byte)0x12, (byte)0x15, (byte)0x09, // s
+            (byte)0x01, (byte)0x1F, (byte)0x01, // t
+            (byte)0x1F, (byte)0x10, (byte)0x1F, // u
+            (byte)0x0F, (byte)0x10, (byte)0x0F, // v
+            (byte)0x1F, (byte)0x0C, (byte)0x1F, // w
+            (byte)0x1B, (byte)0x04, (byte)0x1B, // x
+            (byte)0x03, (byte)0x1C, (byte)0x03, // y
+            (byte)0x19, (byte)0x15, (byte)0x13, // z
+            (byte)0x04, (byte)0x1B, (byte)0x11, // {
+            (byte)0x00, (byte)0x1F, (byte)0x00, // |
+            (byte)0x11, (byte)0x1B, (byte)0x04, // }
+            (byte)0x04, (byte)0x06, (byte)0x02  // ~
+    };
+
+    protected static final int FONT_FILE_MAGIC = 0x4C454446; // "LEDF"
+    protected static final int FONT_FILE_VERSION = 1;
+    protected static final int FONT_MAX_TRACKING = Byte.MAX_VALUE - BYTE_LENGTH; // keeps every advance in a byte
+    protected static final int FONT_MAX_LEADING = 0xFF; // one unsigned byte in a font file
 }
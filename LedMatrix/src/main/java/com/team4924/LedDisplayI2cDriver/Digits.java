@@ -0,0 +1,48 @@
+package com.team4924.LedDisplayI2cDriver;
+
+/**
+ * Formats numbers into a reusable char buffer, so printing numbers does not allocate Strings.
+ */
+final class Digits {
+
+    /**
+     * The most decimals a fixed-point number can have; a long has at most 19 digits.
+     */
+    static final int MAX_DECIMALS = 18;
+
+    /**
+     * The size of a buffer that fits every number: 19 digits, a sign, a decimal point and a
+     * leading zero.
+     */
+    static final int BUFFER_SIZE = 22;
+
+    private Digits() {}
+
+    /**
+     * Formats a fixed-point number into the end of a buffer.
+     * @param value The number, multiplied by 10^decimals; 1234 with 2 decimals is 12.34
+     * @param decimals The amount of digits after the decimal point; 0 to {@link #MAX_DECIMALS}
+     * @param buffer The buffer to write to, at least {@link #BUFFER_SIZE} long
+     * @return The index in the buffer of the first character of the number
+     */
+    static int format(long value, int decimals, char[] buffer) {
+        decimals = Math.max(0, Math.min(MAX_DECIMALS, decimals));
+        boolean negative = value < 0;
+        int i = buffer.length;
+        int digit = 0;
+        // digits are taken from the negative value, which also fits Long.MIN_VALUE
+        long remaining = negative ? value : -value;
+        do {
+            if(digit == decimals && decimals > 0) {
+                buffer[--i] = '.';
+            }
+            buffer[--i] = (char)('0' - remaining % 10);
+            remaining /= 10;
+            digit++;
+        } while(remaining != 0 || digit <= decimals);
+        if(negative) {
+            buffer[--i] = '-';
+        }
+        return i;
+    }
+}
@@ -1,6 +1,19 @@
 package com.team4924.LedDisplayI2cDriver;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import static com.team4924.LedDisplayI2cDriver.Constants.*;
 
@@ -8,15 +21,103 @@ import static com.team4924.LedDisplayI2cDriver.Constants.*;
  * A single display made up of multiple {@link HT16K33} displays.
  * Includes methods for working with all the displays.
  *
+ * Drawing goes into one packed framebuffer for the whole display, which is only split into the
+ * buffers of the separate displays when it is written. Where each display is placed is described
+ * by a {@link Topology}, from which a routing table between the tiles of the framebuffer and the
+ * displays is computed for every rotation. Only the displays showing tiles that changed since
+ * the last write are written, so small updates on large displays stay cheap. With a flush
+ * budget, a write sends only as many displays as fit in the budget and carries the rest over to
+ * the next writes.
+ *
+ * A display can be drawn on from several threads at once. Every tile of the framebuffer has its
+ * own lock, so threads drawing in different parts of the display do not wait for each other, and
+ * a write copies each tile under its lock, so a display is never sent half drawn.
+ *
+ * Drawing can go into three layers: a background, the content and an overlay, each a framebuffer
+ * of its own. The layers are combined tile by tile when the display is written, with the content
+ * and the overlay each blended onto what is below them, and the combined tile is cached until one
+ * of its layers changes. A static background or a moving overlay only needs its own layer redrawn.
+ * Like the text buffers, the layer that is drawn in is kept per thread, so a thread drawing an
+ * overlay never moves the drawing of another thread into it.
+ *
+ * In grayscale mode, pixels have 2-4 bit levels kept in one framebuffer per bit. A background
+ * thread cycles through these bit planes, showing each for twice as long as the one before, so
+ * the displays approximate the levels by binary coded modulation.
+ *
  * @see HT16K33
  */
 public class Display {
 
+    /**
+     * The layers of a display, from bottom to top.
+     * @see #setLayer(Layer)
+     */
+    public enum Layer {
+        BACKGROUND,
+        CONTENT,
+        OVERLAY
+    }
+
+    /**
+     * How a layer is combined with the layers below it.
+     * @see #setBlendMode(Layer, BlendMode)
+     */
+    public enum BlendMode {
+        /** Pixels of the layer are turned on. */
+        OR,
+        /** Pixels of the layer are turned off, erasing the layers below. */
+        AND_NOT,
+        /** Pixels of the layer are inverted. */
+        XOR,
+        /** Only the pixels of the layers below that the layer has on are kept. */
+        MASK
+    }
+
     private final int displayWidth;
     private final int displayHeight;
-    private int rotation;
-    private int lineLength;
+    private final int boardCount;
+    private final int[] rotationOffsets;
+    private final int[][] boardTiles;
+    private final int[][] tileBoards;
+    private final boolean[] boardsToWrite;
+    private final boolean[] staleBoards;
+    private final boolean[] pendingBoards;
+    private final int[] boardAges;
+    private final int[] boardOrder;
+    private boolean boardsPrepared;
+    private int budgetBytes;
+    private int budgetTransactions;
+    private volatile int rotation;
+    private volatile int lineLength;
+    private volatile Font font;
+    private final ThreadLocal<char[]> textBuffers;
+    private final ThreadLocal<char[]> numberBuffers;
+    private Framebuffer framebuffer;
+    private Framebuffer background;
+    private Framebuffer overlay;
+    private final ThreadLocal<Layer> layers;
+    private BlendMode contentBlend;
+    private BlendMode overlayBlend;
+    private final long[] compositeTiles;
+    private final ReentrantReadWriteLock layoutLock = new ReentrantReadWriteLock();
+    private final ReentrantLock[] tileLocks;
+    private Framebuffer[] grayPlanes;
+    private long grayscaleSlotNanos;
+    private Thread grayscaleFlusher;
+    private final long[] shownTiles;
+    private final LinkedHashMap<String, TextStrip> textStrips;
+    private final DisplayMetrics metrics = new DisplayMetrics();
     private final ArrayList<HT16K33> displayBoards;
+    private ArrayList<BusFlush> busFlushes;
+    private ExecutorService flushPool;
+    private final Object flushLock = new Object();
+
+    private final Object frameLock = new Object();
+    private Framebuffer pendingFrame;
+    private int pendingRotation;
+    private boolean framePending;
+    private long framesReplaced;
+    private Thread frameFlusher;
 
     /**
      * @param height The height of the display in # displays
@@ -25,11 +126,79 @@ public class Display {
      * @see HT16K33
      */
     public Display(int height, int width, ArrayList<HT16K33> displayBoards) {
-        this.displayHeight = height;
-        this.displayWidth = width;
+        this(Topology.grid(height, width), displayBoards);
+    }
+
+    /**
+     * @param topology Where each display is placed
+     * @param displayBoards The displays in the order they were placed in the topology
+     * @see HT16K33
+     */
+    public Display(Topology topology, ArrayList<HT16K33> displayBoards) {
+        this.displayHeight = topology.getHeight();
+        this.displayWidth = topology.getWidth();
         this.displayBoards = displayBoards;
         rotation = 0;
         lineLength = 0;
+        font = Font.FIXED_5X7;
+        textBuffers = new ThreadLocal<char[]>() {
+            @Override
+            protected char[] initialValue() {
+                return new char[TEXT_BUFFER_SIZE];
+            }
+        };
+        numberBuffers = new ThreadLocal<char[]>() {
+            @Override
+            protected char[] initialValue() {
+                return new char[Digits.BUFFER_SIZE];
+            }
+        };
+        framebuffer = new Framebuffer(displayHeight, displayWidth);
+        layers = new ThreadLocal<Layer>() {
+            @Override
+            protected Layer initialValue() {
+                return Layer.CONTENT;
+            }
+        };
+        contentBlend = BlendMode.OR;
+        overlayBlend = BlendMode.OR;
+        compositeTiles = new long[displayHeight * displayWidth];
+        tileLocks = new ReentrantLock[displayHeight * displayWidth];
+        for(int t = 0; t < tileLocks.length; t++) {
+            tileLocks[t] = new ReentrantLock();
+        }
+
+        boardCount = Math.min(displayBoards.size(), topology.getBoardCount());
+        boardsToWrite = new boolean[boardCount];
+        staleBoards = new boolean[boardCount];
+        pendingBoards = new boolean[boardCount];
+        boardAges = new int[boardCount];
+        boardOrder = new int[boardCount];
+        shownTiles = new long[boardCount];
+        rotationOffsets = new int[boardCount];
+        boardTiles = new int[4][boardCount];
+        tileBoards = new int[4][displayHeight * displayWidth];
+        for(int r = 0; r < 4; r++) {
+            Arrays.fill(tileBoards[r], -1);
+        }
+        for(int i = 0; i < boardCount; i++) {
+            int row = topology.getRow(i);
+            int column = topology.getColumn(i);
+            rotationOffsets[i] = topology.getRotationOffset(i);
+            boardTiles[0][i] = row * displayWidth + column;
+            boardTiles[1][i] = (displayWidth - 1 - column) * displayHeight + row;
+            boardTiles[2][i] = (displayHeight - 1 - row) * displayWidth + displayWidth - 1 - column;
+            boardTiles[3][i] = column * displayHeight + displayHeight - 1 - row;
+            for(int r = 0; r < 4; r++) {
+                tileBoards[r][boardTiles[r][i]] = i;
+            }
+        }
+        textStrips = new LinkedHashMap<String, TextStrip>(TEXT_STRIP_CACHE_SIZE, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, TextStrip> eldest) {
+                return size() > TEXT_STRIP_CACHE_SIZE;
+            }
+        };
     }
 
     /**
@@ -53,25 +222,137 @@ public class Display {
     }
 
     /**
-     * Clears the displayBuffer of all displays
+     * Rewrites the settings and buffers of all displays, even when they did not change
+     * @see HT16K33#resync()
+     */
+    public void resync() {
+        for(HT16K33 displayBoard : displayBoards) {
+            displayBoard.resync();
+        }
+    }
+
+    /**
+     * Clears the layer that is drawn in, over the entire display
      * @see HT16K33#clear()
+     * @see #setLayer(Layer)
      */
     public void clear() {
-        for(HT16K33 displayBoard : displayBoards) {
-            displayBoard.clear();
+        long start = System.nanoTime();
+        long region = lockRegion(0, 0, Integer.MAX_VALUE, Integer.MAX_VALUE);
+        try {
+            getTarget().clear();
+            if(grayPlanes != null && layers.get() == Layer.CONTENT) {
+                for(Framebuffer plane : grayPlanes) {
+                    plane.clear();
+                }
+            }
+        } finally {
+            unlockRegion(region);
+        }
+        metrics.recordDraw(System.nanoTime() - start);
+    }
+
+    /**
+     * Clears the pixels inside a rectangle of the layer that is drawn in, so only that part of the
+     * display has to be redrawn and written.
+     * @param x The x position of the left edge of the rectangle.
+     * @param y The y position of the top edge of the rectangle.
+     * @param width The width of the rectangle.
+     * @param height The height of the rectangle.
+     */
+    public void clearRegion(int x, int y, int width, int height) {
+        long start = System.nanoTime();
+        long region = lockRegion(x, y, width, height);
+        try {
+            getTarget().clearRegion(x, y, width, height);
+            if(grayPlanes != null && layers.get() == Layer.CONTENT) {
+                for(Framebuffer plane : grayPlanes) {
+                    plane.clearRegion(x, y, width, height);
+                }
+            }
+        } finally {
+            unlockRegion(region);
+        }
+        metrics.recordDraw(System.nanoTime() - start);
+    }
+
+    /**
+     * Marks a rectangle of the display as changed, so the displays showing it are written on the
+     * next write even if nothing was drawn there. Drawing marks what it changes by itself; this is
+     * only needed when the displays were changed directly, for example through {@link HT16K33}.
+     * @param x The x position of the left edge of the rectangle.
+     * @param y The y position of the top edge of the rectangle.
+     * @param width The width of the rectangle.
+     * @param height The height of the rectangle.
+     */
+    public void invalidate(int x, int y, int width, int height) {
+        long region = lockRegion(x, y, width, height);
+        try {
+            framebuffer.invalidate(x, y, width, height);
+        } finally {
+            unlockRegion(region);
         }
     }
 
     /**
-     * Rotates the entire display
+     * Returns the draw and write times of the display, which are updated in place.
+     * @return The metrics of the display
+     * @see HT16K33#getMetrics()
+     */
+    public DisplayMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Rotates the entire display. What was drawn is kept and shown rotated with the display. When
+     * the rotation swaps the width and height of a display that is not square, the drawing does
+     * not fit the rotated display, so every display keeps showing what it showed instead, in all
+     * layers and grayscale planes.
      * @param rotation Indicated rotation; accepts 0-3 otherwise defaults to 0
      * @see HT16K33#setRotation(int rotation)
      */
     public void setRotation(int rotation) {
-        this.rotation = rotation;
-        for(int i = 0; i < displayBoards.size(); i++) {
-            displayBoards.get(i).setRotation(rotation);
+        layoutLock.writeLock().lock();
+        try {
+            int oldRotation = this.rotation;
+            this.rotation = rotation >= 0 && rotation <= 3 ? rotation : 0;
+            for(int i = 0; i < displayBoards.size(); i++) {
+                displayBoards.get(i).setRotation(i < boardCount ? (this.rotation + rotationOffsets[i]) % 4 : rotation);
+            }
+            int tilesHigh = this.rotation % 2 == 0 ? displayHeight : displayWidth;
+            if(framebuffer.getTilesHigh() != tilesHigh) {
+                framebuffer = rotateFramebuffer(framebuffer, oldRotation, this.rotation);
+                background = background != null ? rotateFramebuffer(background, oldRotation, this.rotation) : null;
+                overlay = overlay != null ? rotateFramebuffer(overlay, oldRotation, this.rotation) : null;
+                if(grayPlanes != null) {
+                    for(int p = 0; p < grayPlanes.length; p++) {
+                        grayPlanes[p] = rotateFramebuffer(grayPlanes[p], oldRotation, this.rotation);
+                    }
+                }
+            }
+            framebuffer.invalidateAll();
+        } finally {
+            layoutLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Moves the tiles of a framebuffer into a framebuffer of the shape of another rotation, so
+     * every display keeps showing the same pixels. Tiles not shown by any display are dropped.
+     * Must be called while holding the layout write lock.
+     * @param frame The framebuffer to move
+     * @param oldRotation The rotation the framebuffer was drawn with
+     * @param newRotation The rotation of the new framebuffer
+     * @return The new framebuffer
+     */
+    private Framebuffer rotateFramebuffer(Framebuffer frame, int oldRotation, int newRotation) {
+        Framebuffer rotated = newFramebuffer(newRotation);
+        int turns = (oldRotation - newRotation + 4) % 4;
+        for(int i = 0; i < boardCount; i++) {
+            long tile = frame.getTile(boardTiles[oldRotation][i]);
+            rotated.putTile(boardTiles[newRotation][i], Tiles.rotate(tile, turns), true);
         }
+        return rotated;
     }
 
     /**
@@ -85,70 +366,666 @@ public class Display {
         }
     }
 
+    /**
+     * Returns the brightness last configured, taken from the first display.
+     * @return The brightness; 0-15
+     * @see HT16K33#getBrightness()
+     */
+    public int getBrightness() {
+        return displayBoards.isEmpty() ? BRIGHTNESS_DEFAULT : displayBoards.get(0).getBrightness();
+    }
+
+    /**
+     * Changes the blink rate of all displays
+     * @param blinkRate Indicated blink rate; accepts 0-3 otherwise defaults to 0
+     * @see HT16K33#setBlinkRate(int blinkRate)
+     */
+    public void setBlinkRate(int blinkRate) {
+        for(HT16K33 displayBoard : displayBoards) {
+            displayBoard.setBlinkRate(blinkRate);
+        }
+    }
+
+    /**
+     * Changes the color of what is drawn on all displays. Every display is written on the next
+     * write, since the color changes all of its pixels even when nothing was drawn.
+     * @param newFontColor Indicated color; true = on, false = off
+     * @see HT16K33#setFontColor(boolean color)
+     */
     public void setFontColor(boolean newFontColor) {
         for(HT16K33 displayBoard : displayBoards) {
             displayBoard.setFontColor(newFontColor);
         }
+        synchronized(flushLock) {
+            Arrays.fill(staleBoards, true);
+        }
+    }
+
+    /**
+     * Changes how the buffers are sent to all displays
+     * @param bulkWrite Indicated write mode; true = one transaction per display, false = one per row
+     * @see HT16K33#setBulkWrite(boolean bulkWrite)
+     */
+    public void setBulkWrite(boolean bulkWrite) {
+        for(HT16K33 displayBoard : displayBoards) {
+            displayBoard.setBulkWrite(bulkWrite);
+        }
     }
 
     /**
-     * Write the buffers to all displays
+     * Configures whether displays on different I2C buses are written to at the same time.
+     * Displays on the same bus are still written to one after another in order.
+     * Turn this off when the display is no longer used to stop the worker threads.
+     * @param parallelFlush Indicated flush mode; true = one worker per bus, false = one display at a time
+     * @see HT16K33#getBusName()
+     */
+    public void setParallelFlush(boolean parallelFlush) {
+        ArrayList<BusFlush> newBusFlushes = null;
+        ExecutorService newFlushPool = null;
+        if(parallelFlush) {
+            LinkedHashMap<String, BusFlush> buses = new LinkedHashMap<>();
+            for(int i = 0; i < boardCount; i++) {
+                String busName = displayBoards.get(i).getBusName();
+                if(!buses.containsKey(busName)) {
+                    buses.put(busName, new BusFlush());
+                }
+                buses.get(busName).boards.add(i);
+            }
+            if(buses.size() > 1) {
+                newBusFlushes = new ArrayList<>(buses.values());
+                newFlushPool = Executors.newFixedThreadPool(Math.min(newBusFlushes.size(), MAX_FLUSH_THREADS), new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable runnable) {
+                        Thread thread = new Thread(runnable, "Display flush");
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+            }
+        }
+
+        // Writes hold the flush lock while they use the pool, so the old pool is idle once swapped out
+        ExecutorService oldFlushPool;
+        synchronized(flushLock) {
+            oldFlushPool = flushPool;
+            flushPool = newFlushPool;
+            busFlushes = newBusFlushes;
+        }
+        if(oldFlushPool != null) {
+            oldFlushPool.shutdown();
+        }
+    }
+
+    /**
+     * Write the buffers to all displays. Does nothing in grayscale mode, in which the displays
+     * are written by the grayscale thread.
      * @see HT16K33#writeDisplay()
      */
     public void writeDisplay() {
-        for(int i = 0; i < displayBoards.size(); i++) {
-            displayBoards.get(i).writeDisplay();
+        layoutLock.readLock().lock();
+        try {
+            if(grayPlanes == null) {
+                flush(null, rotation);
+            }
+        } finally {
+            layoutLock.readLock().unlock();
         }
     }
 
     /**
-     * Write a bitmap across all displays
-     * @param x The x position of the bitmap.
-     * @param y The y position of the bitmap.
-     * @param bitmap The bitmap to display.
-     * @see HT16K33#drawBitmap(int x, int y, byte[][] bitmap)
+     * Configures whether frames are written to the displays by a background thread. In this mode,
+     * {@link #submitFrame()} hands the drawn frame to the thread and returns without waiting
+     * for the I2C bus. Turn this off when the display is no longer used to stop the thread.
+     * Turning it off waits for the frame the thread is writing, and then writes the frame that
+     * was submitted but not written yet on the calling thread, so no submitted frame is lost.
+     * @param asyncFlush Indicated flush mode; true = background thread, false = calling thread
      */
-    public void drawBitmap(int x, int y, byte[][] bitmap) {
-        switch(rotation) {
-            case 0:
-                for(int r = Math.max(0, y/8); r < Math.ceil(y/8.0) + Math.ceil(bitmap.length/8.0) && r < displayHeight; r++) {
-                    for(int c = Math.max(0, x/8); c < Math.ceil(x/8.0) + bitmap[0].length && c < displayWidth; c++) {
-                        if(r * displayWidth + c < displayBoards.size()) {
-                            displayBoards.get(r * displayWidth + c).drawBitmap(x - c * 8, y - r * 8, bitmap);
+    public void setAsyncFlush(boolean asyncFlush) {
+        Thread stopped;
+        Framebuffer frame = null;
+        int frameRotation = 0;
+        synchronized(frameLock) {
+            if(asyncFlush == (frameFlusher != null)) {
+                return;
+            }
+            if(asyncFlush) {
+                frameFlusher = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        flushFrames();
+                    }
+                }, "Display frame flush");
+                frameFlusher.setDaemon(true);
+                frameFlusher.start();
+                return;
+            }
+            stopped = frameFlusher;
+            stopped.interrupt();
+            frameFlusher = null;
+            if(framePending) {
+                frame = pendingFrame;
+                frameRotation = pendingRotation;
+                pendingFrame = null;
+                framePending = false;
+            }
+        }
+        // The pending frame is newer than the one being written, so it has to go after it
+        boolean interrupted = false;
+        while(stopped.isAlive()) {
+            try {
+                stopped.join();
+            } catch(InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if(frame != null) {
+            flush(frame, frameRotation);
+        }
+        if(interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Hands the drawn frame to the background thread to be written to all displays, without
+     * waiting for the I2C bus. When the previous frame has not been written yet, it is replaced
+     * by this one. Drawing can continue right away; it does not change the submitted frame.
+     * Without {@link #setAsyncFlush(boolean)} this is the same as {@link #writeDisplay()}.
+     */
+    public void submitFrame() {
+        layoutLock.readLock().lock();
+        try {
+            if(grayPlanes != null) {
+                return;
+            }
+            synchronized(frameLock) {
+                if(frameFlusher != null) {
+                    if(pendingFrame == null || pendingFrame.getTilesHigh() != framebuffer.getTilesHigh()) {
+                        pendingFrame = new Framebuffer(framebuffer.getTilesHigh(), framebuffer.getTilesWide());
+                    }
+                    for(int t = 0; t < tileLocks.length; t++) {
+                        tileLocks[t].lock();
+                        try {
+                            boolean dirty = composeTile(t);
+                            pendingFrame.putTile(t, compositeTiles[t], dirty);
+                        } finally {
+                            tileLocks[t].unlock();
                         }
                     }
+                    pendingRotation = rotation;
+                    if(framePending) {
+                        framesReplaced++;
+                    }
+                    framePending = true;
+                    frameLock.notifyAll();
+                    return;
                 }
-                break;
-            case 1:
-                for(int r = Math.max(0, y/8); r < Math.ceil(y/8.0) + bitmap[0].length && r < displayWidth; r++) {
-                    for(int c = Math.max(0, x/8); c < Math.ceil(x/8.0) + Math.ceil(bitmap.length/8.0) && c < displayHeight; c++) {
-                        if(c * displayWidth + (displayWidth - 1 - r) < displayBoards.size()) {
-                            displayBoards.get(c * displayWidth + (displayWidth - 1 - r)).drawBitmap(x - c * 8, y - r * 8, bitmap);
-                        }
+            }
+        } finally {
+            layoutLock.readLock().unlock();
+        }
+        writeDisplay();
+    }
+
+    /**
+     * Returns the amount of submitted frames that were replaced by a newer frame before they
+     * were written.
+     * @return The frames replaced since the display was created
+     */
+    public long getFramesReplaced() {
+        synchronized(frameLock) {
+            return framesReplaced;
+        }
+    }
+
+    /**
+     * Writes submitted frames until the background thread is stopped. Each pending frame is
+     * swapped with a frame owned by the thread, so {@link #submitFrame()} never waits for a write.
+     */
+    private void flushFrames() {
+        Framebuffer frame = null;
+        Thread thread = Thread.currentThread();
+        while(true) {
+            int frameRotation;
+            synchronized(frameLock) {
+                while(!framePending && frameFlusher == thread) {
+                    try {
+                        frameLock.wait();
+                    } catch(InterruptedException e) {
+                        // Stopping the thread replaces frameFlusher first; any other interrupt keeps waiting
+                        continue;
                     }
                 }
-                break;
-            case 2:
-                for(int r = Math.max(0, y/8); r < Math.ceil(y/8.0) + Math.ceil(bitmap.length/8.0) && r < displayHeight; r++) {
-                    for(int c = Math.max(0, x/8); c < Math.ceil(x/8.0) + bitmap[0].length && c < displayWidth; c++) {
-                        if((displayHeight - 1 - r) * displayWidth + displayWidth - 1 - c < displayBoards.size()) {
-                            displayBoards.get((displayHeight - 1 - r) * displayWidth + displayWidth - 1 - c).drawBitmap(x - c * 8, y - r * 8, bitmap);
-                        }
+                if(frameFlusher != thread) {
+                    return;
+                }
+                Framebuffer submitted = pendingFrame;
+                pendingFrame = frame;
+                frame = submitted;
+                frameRotation = pendingRotation;
+                framePending = false;
+            }
+            flush(frame, frameRotation);
+        }
+    }
+
+    /**
+     * Splits the dirty tiles of a frame into the buffers of the displays showing them and writes
+     * those displays. The other displays are not touched.
+     * @param frame The frame to write, whose tiles are marked clean, or null for the layers of the
+     *              display, which other threads can draw in so each tile is read under its lock
+     * @param frameRotation The rotation the frame was drawn with
+     */
+    private void flush(Framebuffer frame, int frameRotation) {
+        synchronized(flushLock) {
+            long start = System.nanoTime();
+            int[] routing = tileBoards[frameRotation];
+            for(int t = 0; t < routing.length; t++) {
+                int board = routing[t];
+                boolean dirty;
+                long tile;
+                if(frame == null) {
+                    tileLocks[t].lock();
+                    try {
+                        dirty = composeTile(t);
+                        tile = compositeTiles[t];
+                    } finally {
+                        tileLocks[t].unlock();
                     }
+                } else {
+                    dirty = frame.isDirty(t);
+                    tile = frame.getTile(t);
+                    frame.markClean(t);
                 }
-                break;
-            case 3:
-                for(int r = Math.max(0, y/8); r < Math.ceil(y/8.0) + bitmap[0].length && r < displayWidth; r++) {
-                    for(int c = Math.max(0, x/8); c < Math.ceil(x/8.0) + Math.ceil(bitmap.length/8.0) && c < displayHeight; c++) {
-                        if((displayHeight - 1 - c) * displayWidth + r < displayBoards.size()) {
-                            displayBoards.get((displayHeight - 1 - c) * displayWidth + r).drawBitmap(x - c * 8, y - r * 8, bitmap);
-                        }
+                if(board != -1 && (dirty || staleBoards[board])) {
+                    displayBoards.get(board).loadTile(tile, (frameRotation + rotationOffsets[board]) % 4);
+                    boardsToWrite[board] = true;
+                    staleBoards[board] = false;
+                }
+            }
+
+            int boardsDeferred = 0;
+            for(int i = 0; i < boardCount; i++) {
+                boardsToWrite[i] |= pendingBoards[i];
+                pendingBoards[i] = false;
+            }
+            if(budgetBytes > 0 || budgetTransactions > 0) {
+                boardsDeferred = applyBudget();
+            }
+            int boardsWritten = 0;
+            for(int i = 0; i < boardCount; i++) {
+                if(boardsToWrite[i]) {
+                    boardsWritten++;
+                }
+            }
+            writeBoards();
+            metrics.recordFlush(System.nanoTime() - start, boardsWritten, boardsDeferred);
+        }
+    }
+
+    /**
+     * Leaves the displays to be written that fit in the flush budget, and carries the others over
+     * to the next write. Displays are taken in order of how many writes they have waited, so the
+     * oldest changes go first, and the oldest display is always written even if it does not fit.
+     * A display can only wait while an older one is written, so every display is written within
+     * as many writes as there are displays. The displays left are prepared, so
+     * {@link #writeBoards()} only sends them. Must be called while holding the flush lock.
+     * @return The amount of displays carried over
+     */
+    private int applyBudget() {
+        boardsPrepared = true;
+        int candidates = 0;
+        for(int i = 0; i < boardCount; i++) {
+            if(!boardsToWrite[i]) {
+                continue;
+            }
+            HT16K33 displayBoard = displayBoards.get(i);
+            displayBoard.prepareDisplay();
+            if(displayBoard.getPendingTransactions() == 0) {
+                boardsToWrite[i] = false;
+                boardAges[i] = 0;
+                continue;
+            }
+            int j = candidates++;
+            while(j > 0 && boardAges[boardOrder[j - 1]] < boardAges[i]) {
+                boardOrder[j] = boardOrder[j - 1];
+                j--;
+            }
+            boardOrder[j] = i;
+        }
+
+        int bytes = 0;
+        int transactions = 0;
+        int deferred = 0;
+        for(int k = 0; k < candidates; k++) {
+            int board = boardOrder[k];
+            HT16K33 displayBoard = displayBoards.get(board);
+            boolean fits = (budgetBytes <= 0 || bytes + displayBoard.getPendingBytes() <= budgetBytes)
+                    && (budgetTransactions <= 0 || transactions + displayBoard.getPendingTransactions() <= budgetTransactions);
+            if(k == 0 || fits) {
+                bytes += displayBoard.getPendingBytes();
+                transactions += displayBoard.getPendingTransactions();
+                boardAges[board] = 0;
+            } else {
+                boardsToWrite[board] = false;
+                pendingBoards[board] = true;
+                boardAges[board]++;
+                deferred++;
+            }
+        }
+        return deferred;
+    }
+
+    /**
+     * Configures how much a single write may send over the I2C buses. Each display that changed
+     * is estimated in bytes and transactions before anything is sent, the displays that waited
+     * longest are sent first, and the displays that do not fit are sent by the next writes, so
+     * the time of a write stays flat on large displays. Every display that changed is written
+     * within as many writes as there are displays, and {@link #hasPendingBoards()} tells whether
+     * any are still waiting.
+     * @param maxBytes The bytes per write, including the register address of each transaction; 0 or lower for no limit
+     * @param maxTransactions The transactions per write; 0 or lower for no limit
+     * @see DisplayMetrics#getLastFrameBoardsDeferred()
+     */
+    public void setFlushBudget(int maxBytes, int maxTransactions) {
+        synchronized(flushLock) {
+            budgetBytes = maxBytes;
+            budgetTransactions = maxTransactions;
+        }
+    }
+
+    /**
+     * Returns whether displays that changed were carried over to the next write by the flush
+     * budget, so the display should be written again even if nothing was drawn.
+     * @return Whether any display is waiting to be written
+     * @see #setFlushBudget(int, int)
+     */
+    public boolean hasPendingBoards() {
+        synchronized(flushLock) {
+            for(int i = 0; i < boardCount; i++) {
+                if(pendingBoards[i]) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Writes the displays marked to be written, one bus at a time or all buses at once.
+     * Must be called while holding the flush lock.
+     */
+    private void writeBoards() {
+        if(flushPool == null) {
+            for(int i = 0; i < boardCount; i++) {
+                if(boardsToWrite[i]) {
+                    flushBoard(i);
+                }
+            }
+        } else {
+            try {
+                List<Future<Void>> flushes = flushPool.invokeAll(busFlushes);
+                for(Future<Void> flush : flushes) {
+                    flush.get();
+                }
+            } catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch(ExecutionException e) {
+                if(e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException)e.getCause();
+                }
+                throw new RuntimeException(e.getCause());
+            }
+        }
+        Arrays.fill(boardsToWrite, false);
+        boardsPrepared = false;
+    }
+
+    /**
+     * Writes one display, or only sends it when {@link #applyBudget()} already prepared it.
+     * Must be called while holding the flush lock.
+     * @param board The index of the display, in the order of the topology
+     */
+    private void flushBoard(int board) {
+        if(boardsPrepared) {
+            displayBoards.get(board).sendDisplay();
+        } else {
+            displayBoards.get(board).writeDisplay();
+        }
+    }
+
+    /**
+     * Configures the grayscale mode. In this mode every pixel has a level, drawn with
+     * {@link #drawGrayPixel(int, int, int)} and {@link #drawGrayBitmap(int, int, byte[][])},
+     * and a background thread shows bit p of the levels for 2^p slots, one bit after another, and
+     * sleeps for the rest of each slot. A bit whose write takes longer than its slots is shown
+     * longer than it should be, so the levels are less even; compare the achieved refresh rate in
+     * {@link DisplayMetrics#getGrayscaleRefreshRate()} with 10^6 / ((2^bits - 1) * slotMicros).
+     * Everything drawn with the other drawing methods is shown at the highest level.
+     * Turn this off when the display is no longer used to stop the thread.
+     * @param bits The bits per pixel; 2-4 for 4-16 levels, otherwise grayscale is turned off
+     * @param slotMicros The time the lowest bit is shown, in microseconds; at least 100
+     */
+    public void setGrayscale(int bits, int slotMicros) {
+        Thread stopped;
+        Thread started = null;
+        layoutLock.writeLock().lock();
+        try {
+            stopped = grayscaleFlusher;
+            grayPlanes = null;
+            grayscaleFlusher = null;
+            if(bits >= GRAYSCALE_MIN_BITS && bits <= GRAYSCALE_MAX_BITS) {
+                grayPlanes = new Framebuffer[bits];
+                for(int p = 0; p < bits; p++) {
+                    grayPlanes[p] = newFramebuffer(rotation);
+                }
+                grayscaleSlotNanos = Math.max(GRAYSCALE_MIN_SLOT_MICROS, slotMicros) * 1000L;
+                started = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        flushGrayscale();
                     }
+                }, "Display grayscale flush");
+                started.setDaemon(true);
+                grayscaleFlusher = started;
+            }
+        } finally {
+            layoutLock.writeLock().unlock();
+        }
+        if(stopped != null) {
+            stopped.interrupt();
+            try {
+                stopped.join();
+            } catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized(flushLock) {
+            Arrays.fill(staleBoards, true);
+        }
+        if(started != null) {
+            started.start();
+        }
+    }
+
+    /**
+     * Shows the bit planes of the grayscale mode until it is turned off. The layout is only
+     * locked while a bit plane is written, so drawing and rotating can go on in between.
+     */
+    private void flushGrayscale() {
+        Thread thread = Thread.currentThread();
+        while(true) {
+            long cycleStart = System.nanoTime();
+            for(int p = 0; p < GRAYSCALE_MAX_BITS; p++) {
+                long planeStart = System.nanoTime();
+                long slotNanos;
+                layoutLock.readLock().lock();
+                try {
+                    if(grayscaleFlusher != thread) {
+                        return;
+                    }
+                    if(p >= grayPlanes.length) {
+                        break;
+                    }
+                    flushPlane(grayPlanes[p], rotation);
+                    slotNanos = grayscaleSlotNanos;
+                } finally {
+                    layoutLock.readLock().unlock();
+                }
+                long deadline = planeStart + (slotNanos << p);
+                for(long wait = deadline - System.nanoTime(); wait > 0; wait = deadline - System.nanoTime()) {
+                    LockSupport.parkNanos(wait);
+                    if(Thread.interrupted()) {
+                        return;
+                    }
+                }
+            }
+            metrics.recordGrayscaleCycle(System.nanoTime() - cycleStart);
+        }
+    }
+
+    /**
+     * Writes a bit plane of the grayscale mode, combined with the framebuffer, to the displays.
+     * Only the displays whose contents differ from what they show are written, so bits that are
+     * the same in neighbouring planes cost nothing.
+     * @param plane The bit plane
+     * @param frameRotation The rotation the bit plane was drawn with
+     */
+    private void flushPlane(Framebuffer plane, int frameRotation) {
+        synchronized(flushLock) {
+            int[] routing = tileBoards[frameRotation];
+            for(int t = 0; t < routing.length; t++) {
+                int board = routing[t];
+                if(board == -1) {
+                    continue;
+                }
+                long tile;
+                tileLocks[t].lock();
+                try {
+                    tile = plane.getTile(t) | blendLayers(t);
+                } finally {
+                    tileLocks[t].unlock();
+                }
+                if(staleBoards[board] || tile != shownTiles[board]) {
+                    displayBoards.get(board).loadTile(tile, (frameRotation + rotationOffsets[board]) % 4);
+                    boardsToWrite[board] = true;
+                    staleBoards[board] = false;
+                    shownTiles[board] = tile;
+                }
+            }
+            writeBoards();
+        }
+    }
+
+    /**
+     * Returns the amount of displays that show part of the framebuffer.
+     * @return The displays, which are numbered in the order of the topology
+     */
+    int getBoardCount() {
+        return boardCount;
+    }
+
+    /**
+     * Returns the current rotation of the entire display.
+     * @return The rotation; 0-3
+     */
+    int getRotation() {
+        return rotation;
+    }
+
+    /**
+     * Returns the height of the entire display before rotation.
+     * @return The height in # displays
+     */
+    int getTilesHigh() {
+        return displayHeight;
+    }
+
+    /**
+     * Returns the width of the entire display before rotation.
+     * @return The width in # displays
+     */
+    int getTilesWide() {
+        return displayWidth;
+    }
+
+    /**
+     * Creates an empty framebuffer the size of the entire display.
+     * @param frameRotation The rotation the framebuffer is drawn with
+     * @return The framebuffer
+     */
+    Framebuffer newFramebuffer(int frameRotation) {
+        return frameRotation % 2 == 0 ? new Framebuffer(displayHeight, displayWidth) : new Framebuffer(displayWidth, displayHeight);
+    }
+
+    /**
+     * Loads a tile into one display and writes it, without touching the other displays. The
+     * display is loaded from the framebuffer again on the next write of the entire display.
+     * @param board The index of the display, in the order of the topology
+     * @param tile The tile, before the rotation of the display is applied
+     * @param tileRotation The rotation the tile was drawn with
+     */
+    void writeBoard(int board, long tile, int tileRotation) {
+        synchronized(flushLock) {
+            HT16K33 displayBoard = displayBoards.get(board);
+            displayBoard.loadTile(tile, (tileRotation + rotationOffsets[board]) % 4);
+            staleBoards[board] = true;
+            displayBoard.writeDisplay();
+        }
+    }
+
+    /**
+     * Returns the part of a frame shown by one of the displays.
+     * @param frame The frame to split
+     * @param frameRotation The rotation the frame was drawn with
+     * @param board The index of the display, in the order of the topology
+     * @return The tile of the frame, before the rotation of the display is applied
+     */
+    long getBoardTile(Framebuffer frame, int frameRotation, int board) {
+        return frame.getTile(boardTiles[frameRotation][board]);
+    }
+
+    /**
+     * Writes the buffers of the displays sharing one I2C bus that changed, in order.
+     */
+    private class BusFlush implements Callable<Void> {
+
+        private final ArrayList<Integer> boards = new ArrayList<>();
+
+        @Override
+        public Void call() {
+            for(int i = 0; i < boards.size(); i++) {
+                int board = boards.get(i);
+                if(boardsToWrite[board]) {
+                    flushBoard(board);
                 }
-                break;
+            }
+            return null;
         }
     }
 
+    /**
+     * Write a bitmap across all displays
+     * @param x The x position of the bitmap.
+     * @param y The y position of the bitmap.
+     * @param bitmap The bitmap to display.
+     * @see HT16K33#drawBitmap(int x, int y, byte[][] bitmap)
+     */
+    public void drawBitmap(int x, int y, byte[][] bitmap) {
+        long start = System.nanoTime();
+        int bytesWide = 0;
+        for(byte[] row : bitmap) {
+            bytesWide = Math.max(bytesWide, row.length);
+        }
+        long region = lockRegion(x, y, bytesWide * BYTE_LENGTH, bitmap.length);
+        try {
+            getTarget().drawBitmap(x, y, bitmap);
+        } finally {
+            unlockRegion(region);
+        }
+        metrics.recordDraw(System.nanoTime() - start);
+    }
+
     /**
      * Draw a character across all displays
      * @param x The x position of the character.
@@ -157,69 +1034,398 @@ public class Display {
      * @see HT16K33#drawCharacter(int x, int y, char character)
      */
     public void drawCharacter(int x, int y, char character) {
-        switch(rotation) {
-            case 0:
-                for (int r = Math.max(0, y / 8); r < Math.ceil(y / 8.0) + CHARACTER_HEIGHT && r < displayHeight; r++) {
-                    for (int c = Math.max(0, x / 8); c < Math.ceil(x / 8.0) + CHARACTER_WIDTH && c < displayWidth; c++) {
-                        if (r * displayWidth + c < displayBoards.size()) {
-                            displayBoards.get(r * displayWidth + c).drawCharacter(x - c * 8, y - r * 8, character);
-                        }
-                    }
-                }
-                break;
-            case 1: for (int r = Math.max(0, y / 8); r < Math.ceil(y / 8.0) + CHARACTER_HEIGHT && r < displayWidth; r++) {
-                    for (int c = Math.max(0, x / 8); c < Math.ceil(x / 8.0) + CHARACTER_WIDTH && c < displayHeight; c++) {
-                        if (c * displayWidth + (displayWidth - 1 - r) < displayBoards.size()) {
-                            displayBoards.get(c * displayWidth + (displayWidth - 1 - r)).drawCharacter(x - c * 8, y - r * 8, character);
-                        }
-                    }
-                }
-                break;
-            case 2: for (int r = Math.max(0, y / 8); r < Math.ceil(y / 8.0) + CHARACTER_HEIGHT && r < displayHeight; r++) {
-                    for (int c = Math.max(0, x / 8); c < Math.ceil(x / 8.0) + CHARACTER_WIDTH && c < displayWidth; c++) {
-                        if ((displayHeight - 1 - r) * displayWidth + displayWidth - 1 - c < displayBoards.size()) {
-                            displayBoards.get((displayHeight - 1 - r) * displayWidth + displayWidth - 1 - c).drawCharacter(x - c * 8, y - r * 8, character);
-                        }
-                    }
+        long start = System.nanoTime();
+        Font font = this.font;
+        long region = lockRegion(x, y, BYTE_LENGTH, font.getHeight());
+        try {
+            getTarget().drawCharacter(x, y, character, font);
+        } finally {
+            unlockRegion(region);
+        }
+        metrics.recordDraw(System.nanoTime() - start);
+    }
+
+    /**
+     * Draw a pixel with a level in grayscale mode. Does nothing when grayscale is off.
+     * @param x The x position of the pixel.
+     * @param y The y position of the pixel.
+     * @param level The level of the pixel; 0 = off to 2^bits - 1 = fully on
+     * @see #setGrayscale(int, int)
+     */
+    public void drawGrayPixel(int x, int y, int level) {
+        long start = System.nanoTime();
+        long region = lockRegion(x, y, 1, 1);
+        try {
+            if(grayPlanes != null) {
+                level = Math.max(0, Math.min(level, (1 << grayPlanes.length) - 1));
+                for(int p = 0; p < grayPlanes.length; p++) {
+                    grayPlanes[p].clearRegion(x, y, 1, 1);
+                    grayPlanes[p].orRow8(x, y, level >> p & 1);
                 }
-                break;
-            case 3: for (int r = Math.max(0, y / 8); r < Math.ceil(y / 8.0) + CHARACTER_HEIGHT && r < displayWidth; r++) {
-                    for (int c = Math.max(0, x / 8); c < Math.ceil(x / 8.0) + CHARACTER_WIDTH && c < displayHeight; c++) {
-                        if ((displayHeight - 1 - c) * displayWidth + r < displayBoards.size()) {
-                            displayBoards.get((displayHeight - 1 - c) * displayWidth + r).drawCharacter(x - c * 8, y - r * 8, character);
+            }
+        } finally {
+            unlockRegion(region);
+        }
+        metrics.recordDraw(System.nanoTime() - start);
+    }
+
+    /**
+     * Draw a bitmap of levels in grayscale mode, replacing the levels underneath it. Does nothing
+     * when grayscale is off.
+     * @param x The x position of the bitmap.
+     * @param y The y position of the bitmap.
+     * @param levels The level of each pixel, by row then column; 0 = off to 2^bits - 1 = fully on
+     * @see #setGrayscale(int, int)
+     */
+    public void drawGrayBitmap(int x, int y, byte[][] levels) {
+        long start = System.nanoTime();
+        int width = 0;
+        for(byte[] row : levels) {
+            width = Math.max(width, row.length);
+        }
+        long region = lockRegion(x, y, width, levels.length);
+        try {
+            if(grayPlanes != null) {
+                int maxLevel = (1 << grayPlanes.length) - 1;
+                for(int r = 0; r < levels.length; r++) {
+                    byte[] row = levels[r];
+                    for(int c = 0; c < row.length; c += BYTE_LENGTH) {
+                        int count = Math.min(BYTE_LENGTH, row.length - c);
+                        for(int p = 0; p < grayPlanes.length; p++) {
+                            int bits = 0;
+                            for(int i = 0; i < count; i++) {
+                                bits |= (Math.min(row[c + i] & 0xFF, maxLevel) >> p & 1) << i;
+                            }
+                            grayPlanes[p].clearRegion(x + c, y + r, count, 1);
+                            grayPlanes[p].orRow8(x + c, y + r, bits);
                         }
                     }
                 }
-                break;
+            }
+        } finally {
+            unlockRegion(region);
         }
+        metrics.recordDraw(System.nanoTime() - start);
     }
 
-
+    /**
+     * Configures the amount of characters per line when printing a string.
+     * @param lineLength The amount of characters per line. When set to 0 or lower, string will
+     *                        not wrap.
+     */
     public void setLineLength(int lineLength) {
         this.lineLength = lineLength;
-        for(HT16K33 displayBoard : displayBoards) {
-            displayBoard.setLineLength(lineLength);
-        }
     }
 
+    /**
+     * Configures the font used to draw characters and text.
+     * @param font The font; {@link Font#FIXED_5X7} by default
+     */
+    public void setFont(Font font) {
+        this.font = font;
+    }
+
+    /**
+     * Returns the font used to draw characters and text.
+     * @return The font
+     */
+    public Font getFont() {
+        return font;
+    }
+
+    /**
+     * Write a String across all displays
+     * @param x The x position of the String.
+     * @param y The y position of the String.
+     * @param message The String to display.
+     * @see HT16K33#print(int x, int y, String message)
+     */
     public void print(int x, int y, String message) {
+        print(x, y, (CharSequence)message);
+    }
 
-        int msgWidth;
-        int msgHeight;
-        if(lineLength > 0) {
-            msgWidth = Math.min(lineLength, message.length()) * (CHARACTER_WIDTH + TRACKING);
-            msgHeight = (int) Math.ceil((double)message.length() / lineLength) * (CHARACTER_HEIGHT + LEADING);
-        } else {
-            msgWidth = message.length() * (CHARACTER_WIDTH + TRACKING);
-            msgHeight = (CHARACTER_HEIGHT + LEADING);
+    /**
+     * Write text across all displays, such as a StringBuilder that is reused every loop.
+     * Does not allocate unless the text is longer than any text printed before.
+     * @param x The x position of the text.
+     * @param y The y position of the text.
+     * @param message The text to display.
+     * @see HT16K33#print(int x, int y, CharSequence message)
+     */
+    public void print(int x, int y, CharSequence message) {
+        int length = message.length();
+        char[] textBuffer = textBuffers.get();
+        if(textBuffer.length < length) {
+            textBuffer = new char[length];
+            textBuffers.set(textBuffer);
+        }
+        for(int i = 0; i < length; i++) {
+            textBuffer[i] = message.charAt(i);
         }
+        print(x, y, textBuffer, 0, length);
+    }
 
-        for(int r = Math.max(0, y/8); r < Math.ceil(y/8.0) + Math.ceil(msgHeight/8.0) && r < displayHeight; r++) {
-            for(int c = Math.max(0, x/8); c < Math.ceil(x/8.0) + Math.ceil(msgWidth/8.0) && c < displayWidth; c++) {
-                if(r * displayWidth + c < displayBoards.size()) {
-                    displayBoards.get(r * displayWidth + c).print(x - c * 8, y - r * 8, message);
+    /**
+     * Write a whole number across all displays without allocating
+     * @param x The x position of the number.
+     * @param y The y position of the number.
+     * @param value The number to display.
+     * @see HT16K33#print(int x, int y, int value)
+     */
+    public void print(int x, int y, int value) {
+        print(x, y, value, 0);
+    }
+
+    /**
+     * Write a fixed-point number across all displays without allocating
+     * @param x The x position of the number.
+     * @param y The y position of the number.
+     * @param value The number multiplied by 10^decimals; 1234 with 2 decimals is displayed as 12.34
+     * @param decimals The amount of digits after the decimal point; 0-18
+     * @see HT16K33#print(int x, int y, long value, int decimals)
+     */
+    public void print(int x, int y, long value, int decimals) {
+        char[] numberBuffer = numberBuffers.get();
+        int start = Digits.format(value, decimals, numberBuffer);
+        print(x, y, numberBuffer, start, numberBuffer.length - start);
+    }
+
+    /**
+     * Write part of a char array across all displays without allocating
+     * @param x The x position of the text.
+     * @param y The y position of the text.
+     * @param message The characters to display.
+     * @param offset The index of the first character to display.
+     * @param length The amount of characters to display.
+     * @see HT16K33#print(int x, int y, char[] message, int offset, int length)
+     */
+    public void print(int x, int y, char[] message, int offset, int length) {
+        if(length <= 0) {
+            return;
+        }
+        long start = System.nanoTime();
+        Font font = this.font;
+        int lineLength = this.lineLength;
+        int msgWidth = lineLength > 0 ? Math.min(lineLength, length) : length;
+        int lines = (length + msgWidth - 1) / msgWidth;
+        long region = lockRegion(x, y, msgWidth * font.getMaxAdvance() + BYTE_LENGTH, lines * font.getLineHeight());
+        try {
+            Framebuffer target = getTarget();
+            int characterX = x;
+            int characterY = y;
+            for(int i = 0; i < length; i++) {
+                if(i > 0 && i % msgWidth == 0) {
+                    characterX = x;
+                    characterY += font.getLineHeight();
                 }
+                characterX += target.drawCharacter(characterX, characterY, message[offset + i], font);
+            }
+        } finally {
+            unlockRegion(region);
+        }
+        metrics.recordDraw(System.nanoTime() - start);
+    }
+
+    /**
+     * Write a single line String scrolled across all displays. The String is rendered once and
+     * cached, so each scroll step only copies the part of it that is visible.
+     * @param offset The amount of pixels the String is scrolled to the left.
+     * @param y The y position of the String.
+     * @param message The String to display.
+     * @return Whether any part of the String is still on the display
+     */
+    public boolean scrollText(int offset, int y, String message) {
+        long start = System.nanoTime();
+        Font font = this.font;
+        TextStrip strip;
+        synchronized(textStrips) {
+            strip = textStrips.get(message);
+            if(strip == null || strip.getFont() != font) {
+                strip = new TextStrip(message, font);
+                textStrips.put(message, strip);
+            }
+        }
+        boolean visible;
+        long region = lockRegion(0, y, Integer.MAX_VALUE, font.getHeight());
+        try {
+            strip.draw(getTarget(), -offset, y);
+            visible = offset < strip.getWidth() && offset > -framebuffer.getWidth();
+        } finally {
+            unlockRegion(region);
+        }
+        metrics.recordDraw(System.nanoTime() - start);
+        return visible;
+    }
+
+    /**
+     * Selects the layer the drawing methods of the calling thread draw in and {@link #clear()}
+     * clears. Every thread selects its own layer, so a thread drawing an overlay does not change
+     * where other threads draw. The background and overlay layers start empty the first time any
+     * thread selects them.
+     * @param layer The layer; {@link Layer#CONTENT} by default
+     */
+    public void setLayer(Layer layer) {
+        layoutLock.writeLock().lock();
+        try {
+            if(layer == Layer.BACKGROUND && background == null) {
+                background = newFramebuffer(rotation);
+            } else if(layer == Layer.OVERLAY && overlay == null) {
+                overlay = newFramebuffer(rotation);
+            }
+            layers.set(layer);
+        } finally {
+            layoutLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the layer the drawing methods of the calling thread draw in.
+     * @return The layer
+     */
+    public Layer getLayer() {
+        return layers.get();
+    }
+
+    /**
+     * Configures how a layer is combined with the layers below it.
+     * @param layer The content or overlay layer; the background is not blended
+     * @param blendMode The blend mode; {@link BlendMode#OR} by default
+     */
+    public void setBlendMode(Layer layer, BlendMode blendMode) {
+        if(layer == Layer.BACKGROUND) {
+            throw new IllegalArgumentException("The background layer has nothing below it to blend with");
+        }
+        layoutLock.writeLock().lock();
+        try {
+            if(layer == Layer.CONTENT) {
+                contentBlend = blendMode;
+            } else {
+                overlayBlend = blendMode;
+            }
+            framebuffer.invalidateAll();
+        } finally {
+            layoutLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the framebuffer of the layer the calling thread draws in. Must be called while
+     * holding the layout lock.
+     * @return The framebuffer
+     */
+    private Framebuffer getTarget() {
+        switch(layers.get()) {
+            case BACKGROUND:
+                return background;
+            case OVERLAY:
+                return overlay;
+            default:
+                return framebuffer;
+        }
+    }
+
+    /**
+     * Recombines a tile of the layers into its cached composite tile if any of the layers changed
+     * there, and marks the tile of the layers clean. Must be called while holding the lock of the tile.
+     * @param index The index of the tile
+     * @return Whether any of the layers changed
+     */
+    private boolean composeTile(int index) {
+        boolean dirty = framebuffer.isDirty(index)
+                || background != null && background.isDirty(index)
+                || overlay != null && overlay.isDirty(index);
+        if(dirty) {
+            compositeTiles[index] = blendLayers(index);
+            framebuffer.markClean(index);
+            if(background != null) {
+                background.markClean(index);
+            }
+            if(overlay != null) {
+                overlay.markClean(index);
+            }
+        }
+        return dirty;
+    }
+
+    /**
+     * Combines a tile of the layers, from the background up. Must be called while holding the
+     * lock of the tile.
+     * @param index The index of the tile
+     * @return The combined tile
+     */
+    private long blendLayers(int index) {
+        long tile = background != null ? background.getTile(index) : 0;
+        tile = blend(tile, framebuffer.getTile(index), contentBlend);
+        if(overlay != null) {
+            tile = blend(tile, overlay.getTile(index), overlayBlend);
+        }
+        return tile;
+    }
+
+    /**
+     * Combines a tile of a layer with the tile of the layers below it, 64 pixels at once.
+     * @param below The combined tile of the layers below
+     * @param tile The tile of the layer
+     * @param blendMode How the layer is combined
+     * @return The combined tile
+     */
+    private static long blend(long below, long tile, BlendMode blendMode) {
+        switch(blendMode) {
+            case AND_NOT:
+                return below & ~tile;
+            case XOR:
+                return below ^ tile;
+            case MASK:
+                return below & tile;
+            default:
+                return below | tile;
+        }
+    }
+
+    /**
+     * Locks the tiles of the framebuffer overlapping a rectangle, so other threads can keep
+     * drawing in the rest of it. The tiles are always locked in ascending order, so threads
+     * locking overlapping rectangles cannot deadlock. The layout is locked for reading first, so
+     * a rotation does not replace the framebuffer while it is drawn in.
+     * @param x The x-coordinate of the left edge of the rectangle; may be negative
+     * @param y The y-coordinate of the top edge of the rectangle; may be negative
+     * @param width The width of the rectangle
+     * @param height The height of the rectangle
+     * @return The locked tiles, to pass to {@link #unlockRegion(long)}
+     */
+    private long lockRegion(int x, int y, int width, int height) {
+        layoutLock.readLock().lock();
+        int tilesWide = framebuffer.getTilesWide();
+        int firstColumn = Math.max(0, x) >> 3;
+        int firstRow = Math.max(0, y) >> 3;
+        int columns = (int)Math.max(0, ((Math.min(framebuffer.getWidth(), (long)x + width) - 1) >> 3) - firstColumn + 1);
+        int rows = (int)Math.max(0, ((Math.min(framebuffer.getHeight(), (long)y + height) - 1) >> 3) - firstRow + 1);
+        if(width <= 0 || height <= 0 || rows == 0 || columns == 0) {
+            return 0;
+        }
+        for(int r = firstRow; r < firstRow + rows; r++) {
+            for(int c = firstColumn; c < firstColumn + columns; c++) {
+                tileLocks[r * tilesWide + c].lock();
+            }
+        }
+        return (long)firstRow << 48 | (long)rows << 32 | (long)firstColumn << 16 | columns;
+    }
+
+    /**
+     * Unlocks the tiles locked by {@link #lockRegion(int, int, int, int)} and the layout.
+     * @param region The locked tiles
+     */
+    private void unlockRegion(long region) {
+        int firstRow = (int)(region >>> 48);
+        int rows = (int)(region >>> 32) & 0xFFFF;
+        int firstColumn = (int)(region >>> 16) & 0xFFFF;
+        int columns = (int)region & 0xFFFF;
+        int tilesWide = framebuffer.getTilesWide();
+        for(int r = firstRow + rows - 1; r >= firstRow; r--) {
+            for(int c = firstColumn + columns - 1; c >= firstColumn; c--) {
+                tileLocks[r * tilesWide + c].unlock();
             }
         }
+        layoutLock.readLock().unlock();
     }
 }
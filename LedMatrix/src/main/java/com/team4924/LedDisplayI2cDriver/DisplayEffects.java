@@ -0,0 +1,196 @@
+package com.team4924.LedDisplayI2cDriver;
+
+import static com.team4924.LedDisplayI2cDriver.Constants.*;
+
+/**
+ * Brightness ramps and blinking for a {@link Display}, done with the dimming and blink settings
+ * of the displays instead of redrawing frames. Each step only writes a brightness command to each
+ * display, and only when the brightness changes.
+ *
+ * Either call {@link #update()} from the loop of the OpMode, or call {@link #start()} to let a
+ * background thread step the effect.
+ *
+ * @see Display#setBrightness(int)
+ * @see Display#setBlinkRate(int)
+ */
+public class DisplayEffects {
+
+    private static final int NONE = 0;
+    private static final int FADE = 1;
+    private static final int PULSE = 2;
+
+    private final Display display;
+
+    private int effect;
+    private int fromBrightness;
+    private int toBrightness;
+    private long startTime;
+    private long duration;
+    private int brightness;
+
+    private Thread stepper;
+
+    /**
+     * @param display The display to apply the effects to
+     */
+    public DisplayEffects(Display display) {
+        this.display = display;
+        effect = NONE;
+        brightness = BRIGHTNESS_DEFAULT;
+    }
+
+    /**
+     * Ramps the brightness from one value to another.
+     * @param from The brightness at the start; 0-15
+     * @param to The brightness at the end; 0-15
+     * @param durationMillis How long the ramp takes
+     */
+    public synchronized void fade(int from, int to, long durationMillis) {
+        begin(FADE, from, to, durationMillis);
+    }
+
+    /**
+     * Ramps the brightness from the minimum to the maximum.
+     * @param durationMillis How long the ramp takes
+     */
+    public void fadeIn(long durationMillis) {
+        fade(0, 15, durationMillis);
+    }
+
+    /**
+     * Ramps the brightness from the current brightness of the display to the minimum, also when
+     * it was set with {@link Display#setBrightness(int)} instead of an effect.
+     * @param durationMillis How long the ramp takes
+     * @see Display#getBrightness()
+     */
+    public void fadeOut(long durationMillis) {
+        fade(display.getBrightness(), 0, durationMillis);
+    }
+
+    /**
+     * Repeatedly ramps the brightness up and down until the effect is cancelled.
+     * @param min The lowest brightness; 0-15
+     * @param max The highest brightness; 0-15
+     * @param periodMillis How long one ramp up and down takes
+     */
+    public synchronized void pulse(int min, int max, long periodMillis) {
+        begin(PULSE, min, max, periodMillis);
+    }
+
+    /**
+     * Blinks the displays with their built in blink rates, which takes no further writes.
+     * @param blinkRate Indicated blink rate; accepts 0-3 otherwise defaults to 0
+     *                  0 = off, 1 = 2HZ, 2 = 1HZ, 3 = 0.5HZ
+     */
+    public void blink(int blinkRate) {
+        display.setBlinkRate(blinkRate);
+    }
+
+    /**
+     * Stops the running brightness effect, leaving the brightness where it is.
+     */
+    public synchronized void cancel() {
+        effect = NONE;
+    }
+
+    /**
+     * Returns whether a brightness effect is running.
+     * @return Whether a fade has not finished or a pulse has not been cancelled
+     */
+    public synchronized boolean isRunning() {
+        return effect != NONE;
+    }
+
+    /**
+     * Steps the running brightness effect, writing the brightness to the displays if it changed.
+     * @return Whether the brightness was written
+     */
+    public boolean update() {
+        int newBrightness;
+        synchronized(this) {
+            if(effect == NONE) {
+                return false;
+            }
+            double progress = (double)(System.nanoTime() - startTime) / duration;
+            if(effect == FADE) {
+                if(progress >= 1) {
+                    progress = 1;
+                    effect = NONE;
+                }
+            } else {
+                progress %= 1;
+                progress = progress < 0.5 ? progress * 2 : 2 - progress * 2;
+            }
+            newBrightness = (int)Math.round(fromBrightness + (toBrightness - fromBrightness) * progress);
+            if(newBrightness == brightness) {
+                return false;
+            }
+            brightness = newBrightness;
+        }
+        display.setBrightness(newBrightness);
+        return true;
+    }
+
+    /**
+     * Starts a background thread that steps the brightness effects.
+     */
+    public synchronized void start() {
+        if(stepper != null) {
+            return;
+        }
+        stepper = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                step();
+            }
+        }, "Display effects");
+        stepper.setDaemon(true);
+        stepper.start();
+    }
+
+    /**
+     * Stops the background thread started by {@link #start()}.
+     */
+    public synchronized void stop() {
+        if(stepper != null) {
+            stepper.interrupt();
+            stepper = null;
+        }
+    }
+
+    /**
+     * Starts a brightness effect, replacing the running one.
+     * @param effect The effect; FADE or PULSE
+     * @param from The brightness at the start
+     * @param to The brightness at the end of a fade, or the highest brightness of a pulse
+     * @param durationMillis How long a fade or one pulse takes
+     */
+    private void begin(int effect, int from, int to, long durationMillis) {
+        this.effect = effect;
+        fromBrightness = Math.max(0, Math.min(15, from));
+        toBrightness = Math.max(0, Math.min(15, to));
+        duration = Math.max(1, durationMillis) * 1000000;
+        startTime = System.nanoTime();
+        brightness = -1;
+    }
+
+    /**
+     * Steps the effects until the background thread is stopped.
+     */
+    private void step() {
+        Thread thread = Thread.currentThread();
+        while(true) {
+            synchronized(this) {
+                if(stepper != thread) {
+                    return;
+                }
+            }
+            update();
+            try {
+                Thread.sleep(EFFECT_STEP_MILLIS);
+            } catch(InterruptedException e) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.team4924.LedDisplayI2cDriver;
+
+/**
+ * Times the drawing and writing of the frames of a {@link Display}. The drawing time of a frame
+ * is the time spent in drawing methods since the previous frame was written.
+ *
+ * The metrics are updated in place and reading them does not allocate, so they can be sent to
+ * telemetry from the loop of an OpMode. The I2C traffic of each display is in its own
+ * {@link I2cMetrics}.
+ *
+ * @see HT16K33#getMetrics()
+ */
+public class DisplayMetrics {
+
+    private long frames;
+    private long drawNanos;
+    private long flushNanos;
+    private long frameDrawNanos;
+    private long lastFrameDrawNanos;
+    private long lastFrameFlushNanos;
+    private long maxFrameFlushNanos;
+    private long boardsWritten;
+    private long lastFrameBoardsWritten;
+    private long boardsDeferred;
+    private long lastFrameBoardsDeferred;
+    private long grayscaleCycles;
+    private long grayscaleNanos;
+    private long lastGrayscaleCycleNanos;
+
+    /**
+     * Records time spent drawing the current frame.
+     * @param nanos The time in nanoseconds
+     */
+    synchronized void recordDraw(long nanos) {
+        frameDrawNanos += nanos;
+        drawNanos += nanos;
+    }
+
+    /**
+     * Records a written frame, which ends the current frame.
+     * @param nanos The time writing the frame took, in nanoseconds
+     * @param boards The displays written because part of them changed
+     * @param deferred The displays that changed but were left for a later frame by the flush budget
+     */
+    synchronized void recordFlush(long nanos, int boards, int deferred) {
+        frames++;
+        boardsWritten += boards;
+        lastFrameBoardsWritten = boards;
+        boardsDeferred += deferred;
+        lastFrameBoardsDeferred = deferred;
+        flushNanos += nanos;
+        lastFrameFlushNanos = nanos;
+        maxFrameFlushNanos = Math.max(maxFrameFlushNanos, nanos);
+        lastFrameDrawNanos = frameDrawNanos;
+        frameDrawNanos = 0;
+    }
+
+    /**
+     * Records a cycle through all bit planes of the grayscale mode.
+     * @param nanos The time the cycle took, in nanoseconds
+     */
+    synchronized void recordGrayscaleCycle(long nanos) {
+        grayscaleCycles++;
+        grayscaleNanos += nanos;
+        lastGrayscaleCycleNanos = nanos;
+    }
+
+    /**
+     * Returns the amount of cycles through all bit planes shown in grayscale mode.
+     * @return The cycles
+     */
+    public synchronized long getGrayscaleCycles() {
+        return grayscaleCycles;
+    }
+
+    /**
+     * Returns the time the last cycle through all bit planes took in grayscale mode. When it is
+     * longer than the bit planes should be shown, the I2C bus cannot keep up and the levels are
+     * shown less evenly.
+     * @return The time in nanoseconds
+     */
+    public synchronized long getLastGrayscaleCycleNanos() {
+        return lastGrayscaleCycleNanos;
+    }
+
+    /**
+     * Returns the refresh rate achieved in grayscale mode, averaged over every cycle.
+     * @return The cycles through all bit planes per second, or 0 if none were shown
+     */
+    public synchronized double getGrayscaleRefreshRate() {
+        return grayscaleNanos > 0 ? grayscaleCycles * 1e9 / grayscaleNanos : 0;
+    }
+
+    /**
+     * Returns the amount of frames written.
+     * @return The frames
+     */
+    public synchronized long getFrames() {
+        return frames;
+    }
+
+    /**
+     * Returns the total time spent drawing.
+     * @return The time in nanoseconds
+     */
+    public synchronized long getDrawNanos() {
+        return drawNanos;
+    }
+
+    /**
+     * Returns the total time spent writing frames.
+     * @return The time in nanoseconds
+     */
+    public synchronized long getFlushNanos() {
+        return flushNanos;
+    }
+
+    /**
+     * Returns the time spent drawing the last written frame.
+     * @return The time in nanoseconds
+     */
+    public synchronized long getLastFrameDrawNanos() {
+        return lastFrameDrawNanos;
+    }
+
+    /**
+     * Returns the time spent writing the last written frame.
+     * @return The time in nanoseconds
+     */
+    public synchronized long getLastFrameFlushNanos() {
+        return lastFrameFlushNanos;
+    }
+
+    /**
+     * Returns the time of the slowest frame write.
+     * @return The time in nanoseconds
+     */
+    public synchronized long getMaxFrameFlushNanos() {
+        return maxFrameFlushNanos;
+    }
+
+    /**
+     * Returns the amount of displays written, counting a display once for every frame in which
+     * part of it changed.
+     * @return The displays written
+     */
+    public synchronized long getBoardsWritten() {
+        return boardsWritten;
+    }
+
+    /**
+     * Returns the amount of displays written for the last written frame.
+     * @return The displays written
+     */
+    public synchronized long getLastFrameBoardsWritten() {
+        return lastFrameBoardsWritten;
+    }
+
+    /**
+     * Returns the amount of displays left for a later frame by the flush budget, counting a
+     * display once for every frame it was left for.
+     * @return The displays deferred
+     * @see Display#setFlushBudget(int, int)
+     */
+    public synchronized long getBoardsDeferred() {
+        return boardsDeferred;
+    }
+
+    /**
+     * Returns the amount of displays left for a later frame by the flush budget in the last
+     * written frame.
+     * @return The displays deferred
+     */
+    public synchronized long getLastFrameBoardsDeferred() {
+        return lastFrameBoardsDeferred;
+    }
+
+    /**
+     * Resets all metrics to 0.
+     */
+    public synchronized void reset() {
+        frames = 0;
+        drawNanos = 0;
+        flushNanos = 0;
+        frameDrawNanos = 0;
+        lastFrameDrawNanos = 0;
+        lastFrameFlushNanos = 0;
+        maxFrameFlushNanos = 0;
+        boardsWritten = 0;
+        lastFrameBoardsWritten = 0;
+        boardsDeferred = 0;
+        lastFrameBoardsDeferred = 0;
+        grayscaleCycles = 0;
+        grayscaleNanos = 0;
+        lastGrayscaleCycleNanos = 0;
+    }
+}
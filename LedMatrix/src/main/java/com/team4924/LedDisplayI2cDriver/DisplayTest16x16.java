@@ -114,7 +114,7 @@ public class DisplayTest16x16 extends LinearOpMode {
         //counts down from 100
         for(int i = 100; i > 0; i--) {
             fullDisplay.clear();
-            fullDisplay.print(0, 0, String.valueOf(i));
+            fullDisplay.print(0, 0, i);
             fullDisplay.writeDisplay();
         }
 
@@ -123,9 +123,8 @@ public class DisplayTest16x16 extends LinearOpMode {
         //scrolls message across the display
         for(int i = 0; i < message.length() * 5; i++) {
             fullDisplay.clear();
-            fullDisplay.print(x, y, message);
+            fullDisplay.scrollText(i, y, message);
             fullDisplay.writeDisplay();
-            x -= 1;
             sleep(100);
         }
 
@@ -138,8 +137,9 @@ public class DisplayTest16x16 extends LinearOpMode {
 
         /*
         displays the panda bitmap to the screen letting you rotate with the bumpers and change the
-        x and y positions with the dpad.
+        x and y positions with the dpad. The scheduler writes the display at most 30 times a second.
          */
+        FrameScheduler scheduler = new FrameScheduler(fullDisplay, 30);
         while(opModeIsActive()) {
             if(gamepad1.dpad_right) {
                 if(!dPadRightPressed) {
@@ -147,7 +147,7 @@ public class DisplayTest16x16 extends LinearOpMode {
                     x += 1;
                     fullDisplay.clear();
                     fullDisplay.drawBitmap(x, y, pandaBitmap);
-                    fullDisplay.writeDisplay();
+                    scheduler.requestRedraw();
                 }
             } else if(dPadRightPressed) {
                 dPadRightPressed = false;
@@ -158,7 +158,7 @@ public class DisplayTest16x16 extends LinearOpMode {
                     y += 1;
                     fullDisplay.clear();
                     fullDisplay.drawBitmap(x, y, pandaBitmap);
-                    fullDisplay.writeDisplay();
+                    scheduler.requestRedraw();
                 }
             } else if(dPadDownPressed) {
                 dPadDownPressed = false;
@@ -169,7 +169,7 @@ public class DisplayTest16x16 extends LinearOpMode {
                     x -= 1;
                     fullDisplay.clear();
                     fullDisplay.drawBitmap(x, y, pandaBitmap);
-                    fullDisplay.writeDisplay();
+                    scheduler.requestRedraw();
                 }
             } else if(dPadLeftPressed) {
                 dPadLeftPressed = false;
@@ -180,7 +180,7 @@ public class DisplayTest16x16 extends LinearOpMode {
                     y -= 1;
                     fullDisplay.clear();
                     fullDisplay.drawBitmap(x, y, pandaBitmap);
-                    fullDisplay.writeDisplay();
+                    scheduler.requestRedraw();
                 }
             } else if(dPadUpPressed) {
                 dPadUpPressed = false;
@@ -192,7 +192,7 @@ public class DisplayTest16x16 extends LinearOpMode {
                     fullDisplay.setRotation(rotation);
                     fullDisplay.clear();
                     fullDisplay.drawBitmap(x, y, pandaBitmap);
-                    fullDisplay.writeDisplay();
+                    scheduler.requestRedraw();
                 }
             } else if(leftBumperPressed) {
                 leftBumperPressed = false;
@@ -204,11 +204,12 @@ public class DisplayTest16x16 extends LinearOpMode {
                     fullDisplay.setRotation(rotation);
                     fullDisplay.clear();
                     fullDisplay.drawBitmap(x, y, pandaBitmap);
-                    fullDisplay.writeDisplay();
+                    scheduler.requestRedraw();
                 }
             } else if(rightBumperPressed) {
                 rightBumperPressed = false;
             }
+            scheduler.update();
         }
     }
 }
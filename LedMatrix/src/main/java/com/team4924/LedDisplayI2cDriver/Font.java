@@ -0,0 +1,316 @@
+package com.team4924.LedDisplayI2cDriver;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import static com.team4924.LedDisplayI2cDriver.Constants.*;
+
+/**
+ * A bitmap font with glyphs up to 8 pixels wide and of any height. The glyphs are packed into one
+ * atlas of rows, each row a byte with the leftmost pixel in the lowest bit, and every glyph has
+ * its own width, so fonts can be proportional. The advance of each glyph, its width plus the
+ * tracking, is computed once, so text is measured and drawn in a single pass.
+ *
+ * Fonts can be written to and read from a compact binary file: the magic "LEDF", the version,
+ * the height, tracking and leading, the amount of glyphs, the character and width of each glyph
+ * in ascending order of character, and the atlas.
+ *
+ * @see Display#setFont(Font)
+ */
+public class Font {
+
+    /**
+     * The 5x7 font of {@link HT16K33}, with every character 5 pixels wide.
+     */
+    public static final Font FIXED_5X7 = fromColumns(CHARACTERS, CHARACTER_WIDTH, CHARACTER_HEIGHT, false);
+
+    /**
+     * The 5x7 font of {@link HT16K33}, with the empty columns around each character removed.
+     */
+    public static final Font PROPORTIONAL_5X7 = fromColumns(CHARACTERS, CHARACTER_WIDTH, CHARACTER_HEIGHT, true);
+
+    /**
+     * A 3x5 font that fits 4 characters on a line and 3 lines on a 16x16 display.
+     */
+    public static final Font FIXED_3X5 = fromColumns(SMALL_CHARACTERS, SMALL_CHARACTER_WIDTH, SMALL_CHARACTER_HEIGHT, false);
+
+    private static final HashMap<String, Font> loadedFonts = new HashMap<>();
+
+    private final int height;
+    private final int tracking;
+    private final int leading;
+    private final char[] characters;
+    private final byte[] widths;
+    private final byte[] advances;
+    private final byte[] atlas;
+    private final short[] asciiGlyphs;
+    private final int missingAdvance;
+    private final int maxAdvance;
+
+    /**
+     * @param height The height of every glyph in pixels
+     * @param tracking The space between characters in pixels; 0-119
+     * @param leading The space between lines in pixels; 0-255
+     * @param characters The character of each glyph, in ascending order
+     * @param widths The width of each glyph in pixels; 0-8
+     * @param atlas The rows of each glyph, height rows per glyph, each row with its leftmost pixel in the lowest bit
+     */
+    public Font(int height, int tracking, int leading, char[] characters, byte[] widths, byte[] atlas) {
+        if(height <= 0 || widths.length != characters.length || atlas.length != characters.length * height) {
+            throw new IllegalArgumentException("The atlas does not hold " + characters.length + " glyphs of height " + height);
+        }
+        if(tracking < 0 || tracking > FONT_MAX_TRACKING) {
+            throw new IllegalArgumentException("The tracking can be at most " + FONT_MAX_TRACKING + " pixels");
+        }
+        if(leading < 0 || leading > FONT_MAX_LEADING) {
+            throw new IllegalArgumentException("The leading can be at most " + FONT_MAX_LEADING + " pixels");
+        }
+        this.height = height;
+        this.tracking = tracking;
+        this.leading = leading;
+        this.characters = characters.clone();
+        this.widths = widths.clone();
+        this.atlas = atlas.clone();
+
+        advances = new byte[characters.length];
+        asciiGlyphs = new short[128];
+        Arrays.fill(asciiGlyphs, (short)-1);
+        for(int g = 0; g < characters.length; g++) {
+            if(g > 0 && characters[g] <= characters[g - 1]) {
+                throw new IllegalArgumentException("The characters are not in ascending order");
+            }
+            if(widths[g] < 0 || widths[g] > BYTE_LENGTH) {
+                throw new IllegalArgumentException("Glyphs can be at most " + BYTE_LENGTH + " pixels wide");
+            }
+            advances[g] = (byte)(widths[g] + tracking);
+            if(characters[g] < asciiGlyphs.length) {
+                asciiGlyphs[characters[g]] = (short)g;
+            }
+        }
+        int space = getGlyph(' ');
+        missingAdvance = space >= 0 ? advances[space] : height / 2 + tracking;
+        int widest = missingAdvance;
+        for(byte advance : advances) {
+            widest = Math.max(widest, advance);
+        }
+        maxAdvance = widest;
+    }
+
+    /**
+     * Builds a font from glyphs stored as columns, each column a byte with the top pixel in the
+     * lowest bit, for the characters from 32 on.
+     */
+    private static Font fromColumns(byte[] columns, int width, int height, boolean proportional) {
+        int count = columns.length / width;
+        char[] characters = new char[count];
+        byte[] widths = new byte[count];
+        byte[] atlas = new byte[count * height];
+        for(int g = 0; g < count; g++) {
+            int first = 0;
+            int last = width - 1;
+            if(proportional) {
+                while(first <= last && columns[g * width + first] == 0) { first++; }
+                while(last >= first && columns[g * width + last] == 0) { last--; }
+            }
+            characters[g] = (char)(g + 32);
+            widths[g] = (byte)(first > last ? width / 2 : last - first + 1);
+            for(int c = first; c <= last; c++) {
+                for(int r = 0; r < height; r++) {
+                    if((columns[g * width + c] >> r & 1) == 1) {
+                        atlas[g * height + r] |= (byte)(1 << (c - first));
+                    }
+                }
+            }
+        }
+        return new Font(height, TRACKING, LEADING, characters, widths, atlas);
+    }
+
+    /**
+     * Loads a font file, or returns the font loaded from it before.
+     * @param file The font file
+     * @return The font
+     * @throws IOException If the file cannot be read or is not a font file
+     */
+    public static Font load(File file) throws IOException {
+        String path = file.getCanonicalPath();
+        synchronized(loadedFonts) {
+            Font font = loadedFonts.get(path);
+            if(font == null) {
+                InputStream in = new FileInputStream(file);
+                try {
+                    font = read(in);
+                } finally {
+                    in.close();
+                }
+                loadedFonts.put(path, font);
+            }
+            return font;
+        }
+    }
+
+    /**
+     * Reads a font from a stream, such as an asset of the app. The font is not cached.
+     * @param in The stream to read the font from
+     * @return The font
+     * @throws IOException If the stream cannot be read or does not hold a font
+     */
+    public static Font read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+        if(data.readInt() != FONT_FILE_MAGIC) {
+            throw new IOException("Not a font file");
+        }
+        int version = data.readUnsignedByte();
+        if(version != FONT_FILE_VERSION) {
+            throw new IOException("Unsupported font file version " + version);
+        }
+        int height = data.readUnsignedByte();
+        int tracking = data.readUnsignedByte();
+        int leading = data.readUnsignedByte();
+        int count = data.readUnsignedShort();
+        char[] characters = new char[count];
+        byte[] widths = new byte[count];
+        for(int g = 0; g < count; g++) {
+            characters[g] = data.readChar();
+            widths[g] = data.readByte();
+        }
+        byte[] atlas = new byte[count * height];
+        data.readFully(atlas);
+        try {
+            return new Font(height, tracking, leading, characters, widths, atlas);
+        } catch(IllegalArgumentException e) {
+            throw new IOException("Corrupt font file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the font to a stream in the format read by {@link #read(InputStream)}.
+     * @param out The stream to write the font to
+     * @throws IOException If the stream cannot be written
+     */
+    public void write(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(FONT_FILE_MAGIC);
+        data.writeByte(FONT_FILE_VERSION);
+        data.writeByte(height);
+        data.writeByte(tracking);
+        data.writeByte(leading);
+        data.writeShort(characters.length);
+        for(int g = 0; g < characters.length; g++) {
+            data.writeChar(characters[g]);
+            data.writeByte(widths[g]);
+        }
+        data.write(atlas);
+        data.flush();
+    }
+
+    /**
+     * Returns the height of the glyphs.
+     * @return The height in pixels
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Returns the distance between the tops of two lines.
+     * @return The height plus the leading in pixels
+     */
+    public int getLineHeight() {
+        return height + leading;
+    }
+
+    /**
+     * Returns whether the font has a glyph for a character. Characters without one are drawn blank.
+     * @param character The character
+     * @return Whether the character has a glyph
+     */
+    public boolean hasGlyph(char character) {
+        return getGlyph(character) >= 0;
+    }
+
+    /**
+     * Returns how far the next character starts from a character.
+     * @param character The character
+     * @return The width of the character plus the tracking in pixels
+     */
+    public int getAdvance(char character) {
+        return getAdvance(getGlyph(character));
+    }
+
+    /**
+     * Measures a single line of text.
+     * @param text The text
+     * @return The width of the text in pixels, without the tracking after the last character
+     */
+    public int measure(CharSequence text) {
+        int width = 0;
+        for(int i = 0; i < text.length(); i++) {
+            width += getAdvance(getGlyph(text.charAt(i)));
+        }
+        return text.length() > 0 ? width - tracking : 0;
+    }
+
+    /**
+     * Measures a single line of text.
+     * @param text The characters of the text
+     * @param offset The index of the first character
+     * @param length The amount of characters
+     * @return The width of the text in pixels, without the tracking after the last character
+     */
+    public int measure(char[] text, int offset, int length) {
+        int width = 0;
+        for(int i = offset; i < offset + length; i++) {
+            width += getAdvance(getGlyph(text[i]));
+        }
+        return length > 0 ? width - tracking : 0;
+    }
+
+    /**
+     * Returns the glyph of a character.
+     * @param character The character
+     * @return The index of the glyph, or -1 if the character has none
+     */
+    int getGlyph(char character) {
+        if(character < asciiGlyphs.length) {
+            return asciiGlyphs[character];
+        }
+        int glyph = Arrays.binarySearch(characters, character);
+        return glyph >= 0 ? glyph : -1;
+    }
+
+    /**
+     * Returns the advance of a glyph.
+     * @param glyph The index of the glyph, or -1 for a character without one
+     * @return The width of the glyph plus the tracking in pixels
+     */
+    int getAdvance(int glyph) {
+        return glyph >= 0 ? advances[glyph] : missingAdvance;
+    }
+
+    /**
+     * Returns the largest advance of any character, so the width of text can be bounded
+     * without measuring it.
+     * @return The largest width of a glyph plus the tracking in pixels
+     */
+    int getMaxAdvance() {
+        return maxAdvance;
+    }
+
+    /**
+     * Returns a row of a glyph.
+     * @param glyph The index of the glyph
+     * @param row The row; 0 to the height - 1
+     * @return The pixels of the row, leftmost pixel in the lowest bit
+     */
+    int getRow(int glyph, int row) {
+        return atlas[glyph * height + row] & 0xFF;
+    }
+}
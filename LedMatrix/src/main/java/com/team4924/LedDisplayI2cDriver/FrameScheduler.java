@@ -0,0 +1,178 @@
+package com.team4924.LedDisplayI2cDriver;
+
+/**
+ * Writes a {@link Display} at a target frame rate. Redraws requested within one frame interval,
+ * from any thread, are merged into a single write, so bursts of updates do not flood the I2C bus.
+ *
+ * Either call {@link #update()} from the loop of the OpMode, or call {@link #start()} to let a
+ * background thread write the display whenever a redraw was requested. Displays carried over by
+ * a flush budget are written by the next frames too, even when no redraw was requested.
+ *
+ * @see Display#submitFrame()
+ */
+public class FrameScheduler {
+
+    private final Display display;
+    private long frameInterval;
+
+    private boolean redrawRequested;
+    private long requestTime;
+    private long nextFrameTime;
+
+    private long framesWritten;
+    private long requestsMerged;
+    private long framesDropped;
+
+    private Thread scheduler;
+
+    /**
+     * @param display The display to write
+     * @param targetFps The maximum amount of frames written per second
+     */
+    public FrameScheduler(Display display, double targetFps) {
+        this.display = display;
+        setTargetFps(targetFps);
+        nextFrameTime = System.nanoTime();
+    }
+
+    /**
+     * Configures the frame rate.
+     * @param targetFps The maximum amount of frames written per second; accepts values above 0
+     *                  otherwise defaults to 50
+     */
+    public synchronized void setTargetFps(double targetFps) {
+        if(targetFps > 0) {
+            frameInterval = (long)(1e9 / targetFps);
+        } else {
+            frameInterval = 20000000L;
+        }
+    }
+
+    /**
+     * Requests the display to be written in the next frame. Requests made before that frame is
+     * written are merged into it.
+     */
+    public synchronized void requestRedraw() {
+        if(redrawRequested) {
+            requestsMerged++;
+        } else {
+            redrawRequested = true;
+            requestTime = System.nanoTime();
+        }
+        notifyAll();
+    }
+
+    /**
+     * Writes the display if a redraw was requested, or displays were carried over by the flush
+     * budget, and the next frame is due.
+     * @return Whether the display was written
+     * @see Display#hasPendingBoards()
+     */
+    public boolean update() {
+        boolean pendingBoards = display.hasPendingBoards();
+        synchronized(this) {
+            long now = System.nanoTime();
+            if(!redrawRequested && !pendingBoards || now - nextFrameTime < 0) {
+                return false;
+            }
+            long late = now - (redrawRequested ? Math.max(nextFrameTime, requestTime) : nextFrameTime);
+            if(late >= frameInterval) {
+                if(redrawRequested) {
+                    framesDropped += late / frameInterval;
+                }
+                nextFrameTime = now + frameInterval;
+            } else {
+                nextFrameTime += frameInterval;
+            }
+            redrawRequested = false;
+            framesWritten++;
+        }
+        display.submitFrame();
+        return true;
+    }
+
+    /**
+     * Starts a background thread that writes the display when a redraw was requested or
+     * displays were carried over by the flush budget.
+     */
+    public synchronized void start() {
+        if(scheduler != null) {
+            return;
+        }
+        scheduler = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                schedule();
+            }
+        }, "Display frame scheduler");
+        scheduler.setDaemon(true);
+        scheduler.start();
+    }
+
+    /**
+     * Stops the background thread started by {@link #start()}.
+     */
+    public synchronized void stop() {
+        if(scheduler != null) {
+            scheduler.interrupt();
+            scheduler = null;
+            notifyAll();
+        }
+    }
+
+    /**
+     * Returns the amount of frames written.
+     * @return The frames written since the scheduler was created
+     */
+    public synchronized long getFramesWritten() {
+        return framesWritten;
+    }
+
+    /**
+     * Returns the amount of redraw requests that were merged into a frame requested before them.
+     * @return The requests merged since the scheduler was created
+     */
+    public synchronized long getRequestsMerged() {
+        return requestsMerged;
+    }
+
+    /**
+     * Returns the amount of frames that were due while a redraw was requested, but were not
+     * written because {@link #update()} was called too late.
+     * @return The frames dropped since the scheduler was created
+     */
+    public synchronized long getFramesDropped() {
+        return framesDropped;
+    }
+
+    /**
+     * Waits for redraw requests and frame times until the background thread is stopped. While
+     * nothing is requested, it checks every frame interval for displays carried over by the
+     * flush budget.
+     */
+    private void schedule() {
+        Thread thread = Thread.currentThread();
+        while(true) {
+            boolean pendingBoards = display.hasPendingBoards();
+            synchronized(this) {
+                try {
+                    if(scheduler == thread && !redrawRequested && !pendingBoards) {
+                        long check = Math.max(frameInterval, 1000000);
+                        wait(check / 1000000, (int)(check % 1000000));
+                        continue;
+                    }
+                    long wait = nextFrameTime - System.nanoTime();
+                    if(scheduler == thread && wait > 0) {
+                        wait(wait / 1000000, (int)(wait % 1000000));
+                    }
+                } catch(InterruptedException e) {
+                    return;
+                }
+                if(scheduler != thread) {
+                    return;
+                }
+            }
+            update();
+        }
+    }
+}
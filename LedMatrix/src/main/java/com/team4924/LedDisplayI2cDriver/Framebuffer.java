@@ -0,0 +1,219 @@
+package com.team4924.LedDisplayI2cDriver;
+
+import java.util.Arrays;
+
+import static com.team4924.LedDisplayI2cDriver.Constants.*;
+
+/**
+ * A packed 1-bit framebuffer made of 8x8 tiles, stored one long per tile from left to right
+ * top to bottom. Pixels are drawn in 8-pixel row segments, so the cost of drawing depends on
+ * the size of what is drawn and not on the amount of tiles.
+ *
+ * Every tile whose pixels change is marked dirty, so writing the framebuffer only needs to touch
+ * the displays showing dirty tiles. A new framebuffer starts with every tile dirty.
+ *
+ * @see Tiles
+ */
+final class Framebuffer {
+
+    private final int tilesWide;
+    private final int tilesHigh;
+    private final long[] tiles;
+    private final boolean[] dirty;
+
+    /**
+     * @param tilesHigh The height of the framebuffer in # tiles
+     * @param tilesWide The width of the framebuffer in # tiles
+     */
+    Framebuffer(int tilesHigh, int tilesWide) {
+        this.tilesHigh = tilesHigh;
+        this.tilesWide = tilesWide;
+        tiles = new long[tilesHigh * tilesWide];
+        dirty = new boolean[tiles.length];
+        invalidateAll();
+    }
+
+    int getTilesWide() {
+        return tilesWide;
+    }
+
+    int getTilesHigh() {
+        return tilesHigh;
+    }
+
+    int getWidth() {
+        return tilesWide * DISPLAY_WIDTH;
+    }
+
+    int getHeight() {
+        return tilesHigh * DISPLAY_HEIGHT;
+    }
+
+    /**
+     * Returns a tile of the framebuffer.
+     * @param index The index of the tile, counted from left to right top to bottom
+     * @return The tile; see {@link Tiles} for the bit layout
+     */
+    long getTile(int index) {
+        return tiles[index];
+    }
+
+    /**
+     * Returns whether a tile changed since the dirty tiles were last cleared.
+     * @param index The index of the tile, counted from left to right top to bottom
+     * @return Whether the tile is dirty
+     */
+    boolean isDirty(int index) {
+        return dirty[index];
+    }
+
+    /**
+     * Marks a tile clean.
+     * @param index The index of the tile, counted from left to right top to bottom
+     */
+    void markClean(int index) {
+        dirty[index] = false;
+    }
+
+    /**
+     * Marks every tile dirty.
+     */
+    void invalidateAll() {
+        Arrays.fill(dirty, true);
+    }
+
+    /**
+     * Marks the tiles overlapping a rectangle dirty, even if none of their pixels changed.
+     * @param x The x-coordinate of the left edge of the rectangle; may be negative
+     * @param y The y-coordinate of the top edge of the rectangle; may be negative
+     * @param width The width of the rectangle
+     * @param height The height of the rectangle
+     */
+    void invalidate(int x, int y, int width, int height) {
+        if(width <= 0 || height <= 0) { return; }
+        int firstColumn = Math.max(0, x) >> 3;
+        int lastColumn = (Math.min(getWidth(), x + width) - 1) >> 3;
+        int firstRow = Math.max(0, y) >> 3;
+        int lastRow = (Math.min(getHeight(), y + height) - 1) >> 3;
+        for(int tileRow = firstRow; tileRow <= lastRow; tileRow++) {
+            for(int tileColumn = firstColumn; tileColumn <= lastColumn; tileColumn++) {
+                dirty[tileRow * tilesWide + tileColumn] = true;
+            }
+        }
+    }
+
+    /**
+     * Replaces a tile. A tile that was already dirty stays dirty.
+     * @param index The index of the tile, counted from left to right top to bottom
+     * @param tile The new tile; see {@link Tiles} for the bit layout
+     * @param changed Whether to mark the tile dirty
+     */
+    void putTile(int index, long tile, boolean changed) {
+        tiles[index] = tile;
+        dirty[index] |= changed;
+    }
+
+    /**
+     * Clears every pixel of the framebuffer.
+     */
+    void clear() {
+        for(int i = 0; i < tiles.length; i++) {
+            if(tiles[i] != 0) {
+                tiles[i] = 0;
+                dirty[i] = true;
+            }
+        }
+    }
+
+    /**
+     * Clears the pixels inside a rectangle. Pixels outside the framebuffer are ignored.
+     * @param x The x-coordinate of the left edge of the rectangle; may be negative
+     * @param y The y-coordinate of the top edge of the rectangle; may be negative
+     * @param width The width of the rectangle
+     * @param height The height of the rectangle
+     */
+    void clearRegion(int x, int y, int width, int height) {
+        int left = Math.max(0, x);
+        int right = Math.min(getWidth(), x + width);
+        for(int row = Math.max(0, y); row < Math.min(getHeight(), y + height); row++) {
+            int rowShift = (row & 7) * 8;
+            for(int tileColumn = left >> 3; tileColumn <= (right - 1) >> 3; tileColumn++) {
+                int first = Math.max(left - tileColumn * 8, 0);
+                int last = Math.min(right - tileColumn * 8, 8);
+                long mask = (long)((0xFF << first) & (0xFF >> (8 - last))) << rowShift;
+                int index = (row >> 3) * tilesWide + tileColumn;
+                if((tiles[index] & mask) != 0) {
+                    tiles[index] &= ~mask;
+                    dirty[index] = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Turns on up to 8 pixels of a row. Pixels outside the framebuffer are ignored.
+     * @param x The x-coordinate of the first pixel; may be negative
+     * @param y The y-coordinate of the row
+     * @param bits The pixels to turn on, the pixel at x in the lowest bit
+     */
+    void orRow8(int x, int y, int bits) {
+        if(y < 0 || y >= tilesHigh * DISPLAY_HEIGHT || bits == 0) { return; }
+        int tileColumn = x >> 3;
+        int shifted = (bits & 0xFF) << (x & 7);
+        int rowShift = (y & 7) * 8;
+        int index = (y >> 3) * tilesWide + tileColumn;
+        if(tileColumn >= 0 && tileColumn < tilesWide) {
+            orTile(index, (long)(shifted & 0xFF) << rowShift);
+        }
+        if(tileColumn + 1 >= 0 && tileColumn + 1 < tilesWide) {
+            orTile(index + 1, (long)(shifted >>> 8) << rowShift);
+        }
+    }
+
+    /**
+     * Turns on pixels of a tile, marking it dirty if any of them was off.
+     * @param index The index of the tile
+     * @param pixels The pixels to turn on
+     */
+    private void orTile(int index, long pixels) {
+        // Neighbouring tiles may be drawn by other threads, so a tile is not even read without pixels for it
+        if(pixels != 0 && (tiles[index] | pixels) != tiles[index]) {
+            tiles[index] |= pixels;
+            dirty[index] = true;
+        }
+    }
+
+    /**
+     * Turns on the pixels of a bitmap.
+     * @param x The x-coordinate of the top left pixel of the bitmap
+     * @param y The y-coordinate of the top left pixel of the bitmap
+     * @param bitmap The bitmap, each row as bytes with the leftmost pixel in the highest bit
+     */
+    void drawBitmap(int x, int y, byte[][] bitmap) {
+        for(int r = Math.max(0, -y); r < bitmap.length && y + r < getHeight(); r++) {
+            byte[] row = bitmap[r];
+            for(int b = Math.max(0, -x / BYTE_LENGTH - 1); b < row.length && x + b * BYTE_LENGTH < getWidth(); b++) {
+                orRow8(x + b * BYTE_LENGTH, y + r, Integer.reverse(row[b]) >>> 24);
+            }
+        }
+    }
+
+    /**
+     * Turns on the pixels of a character.
+     * @param x The x-coordinate of the top left pixel of the character
+     * @param y The y-coordinate of the top left pixel of the character
+     * @param character The character; characters without a glyph are blank
+     * @param font The font of the character
+     * @return The advance of the character, to add to x for the next character
+     */
+    int drawCharacter(int x, int y, char character, Font font) {
+        int glyph = font.getGlyph(character);
+        if(glyph < 0 || x <= -BYTE_LENGTH || y <= -font.getHeight() || x >= getWidth() || y >= getHeight()) {
+            return font.getAdvance(glyph);
+        }
+        for(int r = Math.max(0, -y); r < font.getHeight() && y + r < getHeight(); r++) {
+            orRow8(x, y + r, font.getRow(glyph, r));
+        }
+        return font.getAdvance(glyph);
+    }
+}
@@ -0,0 +1,65 @@
+package com.team4924.LedDisplayI2cDriver;
+
+import static com.team4924.LedDisplayI2cDriver.Constants.*;
+
+/**
+ * Every character of {@link Constants#CHARACTERS} as an 8x8 tile with the character in the top
+ * left corner, built once for each of the four rotations. Characters can then be drawn with a
+ * few shifts instead of being rebuilt pixel by pixel.
+ *
+ * @see Tiles
+ */
+final class GlyphCache {
+
+    private static final int GLYPH_COUNT = CHARACTERS.length / CHARACTER_WIDTH;
+
+    private static final long[][] GLYPHS = new long[4][GLYPH_COUNT];
+
+    static {
+        for(int g = 0; g < GLYPH_COUNT; g++) {
+            long tile = 0;
+            for(int c = 0; c < CHARACTER_WIDTH; c++) {
+                tile |= Tiles.transpose(CHARACTERS[g * CHARACTER_WIDTH + c] & 0x7FL) << c;
+            }
+            for(int rotation = 0; rotation < 4; rotation++) {
+                GLYPHS[rotation][g] = Tiles.rotate(tile, rotation);
+            }
+        }
+    }
+
+    private GlyphCache() {}
+
+    /**
+     * Returns a character in the top left corner of a tile.
+     * @param character The character; characters without a glyph are blank
+     * @param rotation Indicated rotation; 0-3
+     * @return The rotated tile
+     */
+    static long get(char character, int rotation) {
+        int glyph = (int)character - 32;
+        return glyph >= 0 && glyph < GLYPH_COUNT ? GLYPHS[rotation][glyph] : 0;
+    }
+
+    /**
+     * Returns a character moved to a position of a tile and then rotated, which is done by
+     * moving the pre-rotated character in the rotated directions.
+     * @param character The character; characters without a glyph are blank
+     * @param rotation Indicated rotation; 0-3
+     * @param x The x-coordinate of the top left pixel of the character before rotating
+     * @param y The y-coordinate of the top left pixel of the character before rotating
+     * @return The rotated tile
+     */
+    static long place(char character, int rotation, int x, int y) {
+        long glyph = get(character, rotation);
+        switch(rotation) {
+            case 1:
+                return Tiles.shift(glyph, -y, x);
+            case 2:
+                return Tiles.shift(glyph, -x, -y);
+            case 3:
+                return Tiles.shift(glyph, y, -x);
+            default:
+                return Tiles.shift(glyph, x, y);
+        }
+    }
+}
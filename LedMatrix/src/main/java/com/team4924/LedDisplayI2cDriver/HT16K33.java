@@ -18,22 +18,49 @@ import static com.team4924.LedDisplayI2cDriver.Constants.*;
  * to a buffer, writing the buffer to the screen, rotating the display, and scrolling across the display.
  *
  * For controlling multiple displays as one display, see {@link Display}
+ *
+ * Every method that draws, changes a setting or uses the I2C bus holds the lock of the display,
+ * so a display can be shared between threads and is never written while it is being drawn.
  */
 @I2cDeviceType
 @DeviceProperties(name = "HT16K33 8x8 LED Display", xmlTag = "HT16K33")
 public class HT16K33 extends I2cDeviceSynchDevice<I2cDeviceSynch> implements I2cAddrConfig {
 
     private final byte[] displayBuffer;
-
+    private final byte[] displayRam;
+    private final byte[] sentRam;
+    private final byte[][] ramSlices;
+    private boolean sentRamValid;
+    private int pendingFirst;
+    private int pendingLast;
+    private int pendingBytes;
+    private int pendingTransactions;
+
+    private final I2cMetrics metrics;
+
+    private boolean systemRunning;
     private boolean displayOn;
     private int blinkRate;
+    private int brightness;
+
+    private int sentSystemSetup;
+    private int sentDisplaySetup;
+    private int sentBrightness;
 
     private int currentRotation;
     private int rotationOffset;
 
     private boolean fontColor;
+    private boolean bulkWrite;
 
     private int lineLength;
+    private char[] textBuffer;
+    private final char[] numberBuffer;
+
+    private long keys;
+    private long keyScanInterval;
+    private long nextKeyScan;
+    private boolean keyInterruptFlag;
 
     /**
      * Converts a boolean to a byte. True = 1, False = 0.
@@ -73,8 +100,16 @@ public class HT16K33 extends I2cDeviceSynchDevice<I2cDeviceSynch> implements I2c
         this.deviceClient.engage();
 
         displayBuffer = new byte[8];
+        displayRam = new byte[DISPLAY_RAM_SIZE];
+        sentRam = new byte[DISPLAY_RAM_SIZE];
+        ramSlices = new byte[DISPLAY_RAM_SIZE + 1][];
+        sentRamValid = false;
+        metrics = new I2cMetrics();
 
+        systemRunning = false;
         displayOn = false;
+        brightness = BRIGHTNESS_DEFAULT;
+        invalidateRegisters();
 
         currentRotation = 0;
         rotationOffset = 0;
@@ -82,6 +117,13 @@ public class HT16K33 extends I2cDeviceSynchDevice<I2cDeviceSynch> implements I2c
         blinkRate = 0;
 
         lineLength = 0;
+        textBuffer = new char[TEXT_BUFFER_SIZE];
+        numberBuffer = new char[Digits.BUFFER_SIZE];
+
+        bulkWrite = BULK_WRITE_DEFAULT;
+
+        keyScanInterval = KEY_SCAN_INTERVAL_DEFAULT * 1000000L;
+        keyInterruptFlag = true;
     }
 
     /**
@@ -92,6 +134,7 @@ public class HT16K33 extends I2cDeviceSynchDevice<I2cDeviceSynch> implements I2c
     @Override
     protected synchronized boolean doInitialize() {
 
+        invalidateRegisters();
         systemStart();
 
         setFontColor(FONT_COLOR_DEFAULT);
@@ -123,6 +166,20 @@ public class HT16K33 extends I2cDeviceSynchDevice<I2cDeviceSynch> implements I2c
         return this.deviceClient.getI2cAddress();
     }
 
+    /**
+     * Returns the name of the I2C bus the display is connected to. Displays with the same bus name
+     * share the bus and cannot be written to at the same time.
+     * @return The connection info of the display without its I2C address
+     */
+    public String getBusName() {
+        String connectionInfo = this.deviceClient.getConnectionInfo();
+        if(connectionInfo == null) {
+            return "";
+        }
+        int addressIndex = connectionInfo.indexOf("; addr");
+        return addressIndex >= 0 ? connectionInfo.substring(0, addressIndex) : connectionInfo;
+    }
+
     /**
      * Writes a byte to the indicated register.
      * @param command The first nybble of the command address used for indicating the register
@@ -130,42 +187,145 @@ public class HT16K33 extends I2cDeviceSynchDevice<I2cDeviceSynch> implements I2c
      * @param value The byte of data sent to the register. Only used when writing to the display
      */
     private void write8(@NotNull Command command, byte setting, byte value) {
-        this.deviceClient.write8(command.bVal * 16 + setting, value);
+        long start = System.nanoTime();
+        try {
+            this.deviceClient.write8(command.bVal * 16 + setting, value);
+        } catch(RuntimeException e) {
+            metrics.recordFailure();
+            throw e;
+        }
+        metrics.recordWrite(2, System.nanoTime() - start);
+    }
+
+    /**
+     * Writes a block of bytes starting at the indicated register. The HT16K33 auto-increments
+     * the address pointer, so the whole block is sent in a single I2C transaction.
+     * @param command The first nybble of the command address used for indicating the register
+     * @param setting The second nybble of the command address used for indicating the starting address
+     * @param data The bytes of data sent to the registers
+     */
+    private void write(@NotNull Command command, byte setting, byte[] data) {
+        long start = System.nanoTime();
+        try {
+            this.deviceClient.write(command.bVal * 16 + setting, data);
+        } catch(RuntimeException e) {
+            metrics.recordFailure();
+            throw e;
+        }
+        metrics.recordWrite(1 + data.length, System.nanoTime() - start);
+    }
+
+    /**
+     * Reads a byte from the indicated register.
+     * @param address The address of the register
+     * @return The byte read
+     */
+    private byte read8(int address) {
+        long start = System.nanoTime();
+        byte value;
+        try {
+            value = this.deviceClient.read8(address);
+        } catch(RuntimeException e) {
+            metrics.recordFailure();
+            throw e;
+        }
+        metrics.recordRead(2, System.nanoTime() - start);
+        return value;
+    }
+
+    /**
+     * Reads a block of bytes starting at the indicated register in a single I2C transaction.
+     * @param address The address of the first register
+     * @param length The amount of bytes to read
+     * @return The bytes read
+     */
+    private byte[] read(int address, int length) {
+        long start = System.nanoTime();
+        byte[] data;
+        try {
+            data = this.deviceClient.read(address, length);
+        } catch(RuntimeException e) {
+            metrics.recordFailure();
+            throw e;
+        }
+        metrics.recordRead(1 + length, System.nanoTime() - start);
+        return data;
+    }
+
+    /**
+     * Writes a command setting to the indicated register, unless the register already holds it.
+     * @param command The first nybble of the command address used for indicating the register
+     * @param setting The second nybble of the command address
+     * @param sentSetting The setting last written to the register, or -1 when it is unknown
+     * @return The setting the register now holds
+     */
+    private int writeSetting(@NotNull Command command, int setting, int sentSetting) {
+        if(setting == sentSetting) {
+            metrics.recordSkippedCommand();
+            return sentSetting;
+        }
+        write8(command, (byte)setting, (byte)0);
+        return setting;
+    }
+
+    /**
+     * Forgets what was last written to the registers and display RAM, so the next writes are
+     * sent even when they do not change anything.
+     */
+    private void invalidateRegisters() {
+        sentSystemSetup = -1;
+        sentDisplaySetup = -1;
+        sentBrightness = -1;
+        sentRamValid = false;
+    }
+
+    /**
+     * Rewrites the system setup, display setup, brightness and display RAM, even when they did
+     * not change. Use this when the display may have lost its state, for example after a power loss.
+     */
+    public synchronized void resync() {
+        invalidateRegisters();
+        sentSystemSetup = writeSetting(Command.SYSTEM_SETUP, boolToByte(systemRunning), sentSystemSetup);
+        sentDisplaySetup = writeSetting(Command.DISPLAY_SETUP, blinkRate * 2 + boolToByte(displayOn), sentDisplaySetup);
+        sentBrightness = writeSetting(Command.SET_BRIGHTNESS, brightness, sentBrightness);
+        writeDisplay();
     }
 
     /**
      * Turns the system oscillator on.
      */
-    public void systemStart() {
-        write8(Command.SYSTEM_SETUP, (byte)1, (byte)0);
+    public synchronized void systemStart() {
+        systemRunning = true;
+        sentSystemSetup = writeSetting(Command.SYSTEM_SETUP, 1, sentSystemSetup);
     }
 
     /**
      * Turns off the system oscillator.
      */
-    public void systemStop() {
-        write8(Command.SYSTEM_SETUP, (byte)0, (byte)0);
+    public synchronized void systemStop() {
+        systemRunning = false;
+        sentSystemSetup = writeSetting(Command.SYSTEM_SETUP, 0, sentSystemSetup);
     }
 
     /**
      * Turns the display on.
      */
-    public void displayOn() {
+    public synchronized void displayOn() {
         displayOn = true;
-        write8(Command.DISPLAY_SETUP, (byte)(blinkRate * 2 + boolToByte(true)), (byte)0);
+        sentDisplaySetup = writeSetting(Command.DISPLAY_SETUP, blinkRate * 2 + boolToByte(true), sentDisplaySetup);
     }
     /**
      * Turns the display off.
      */
-    public void displayOff() {
+    public synchronized void displayOff() {
         displayOn = false;
-        write8(Command.DISPLAY_SETUP, (byte)(blinkRate * 2 + boolToByte(true)), (byte)0);
+        sentDisplaySetup = writeSetting(Command.DISPLAY_SETUP, blinkRate * 2 + boolToByte(false), sentDisplaySetup);
     }
 
     /**
      * Clears the display buffer.
      */
-    public void clear() {
+    public synchronized void clear() {
         Arrays.fill(displayBuffer, (byte)0);
     }
 
@@ -173,7 +333,7 @@ public class HT16K33 extends I2cDeviceSynchDevice<I2cDeviceSynch> implements I2c
      * Configures the offset of the display's rotation.
      * @param rotation Indicated rotation; accepts 0-3 otherwise defaults to 0
      */
-    public void setRotationOffset(int rotation) {
+    public synchronized void setRotationOffset(int rotation) {
         if(rotation >= 0 && rotation <= 3) {
             rotationOffset = rotation;
         } else {
@@ -185,7 +345,7 @@ public class HT16K33 extends I2cDeviceSynchDevice<I2cDeviceSynch> implements I2c
     /**
      * Fills the display buffer.
      */
-    public void fill() {
+    public synchronized void fill() {
         Arrays.fill(displayBuffer, (byte) 0xff);
     }
 
@@ -193,7 +353,7 @@ public class HT16K33 extends I2cDeviceSynchDevice<I2cDeviceSynch> implements I2c
      * Configures the rotation of the display.
      * @param rotation Indicated rotation; accepts 0-3 otherwise defaults to 0
      */
-    public void setRotation(int rotation) {
+    public synchronized void setRotation(int rotation) {
         if(rotation >= 0 && rotation <= 3) {
             currentRotation = (rotation + rotationOffset) % 4;
         } else {
@@ -206,12 +366,21 @@ public class HT16K33 extends I2cDeviceSynchDevice<I2cDeviceSynch> implements I2c
      * @param brightness Indicated brightness; accepts 0-15 otherwise defaults to 15
      *                   15 = maximum brightness, 0 = minimum brightness
      */
-    public void setBrightness(int brightness) {
+    public synchronized void setBrightness(int brightness) {
         if(brightness >= 0 && brightness <= 15) {
-            write8(Command.SET_BRIGHTNESS, (byte)brightness, (byte)0);
+            this.brightness = brightness;
         } else {
-            write8(Command.SET_BRIGHTNESS, (byte)0xF, (byte)0);
+            this.brightness = 0xF;
         }
+        sentBrightness = writeSetting(Command.SET_BRIGHTNESS, this.brightness, sentBrightness);
+    }
+
+    /**
+     * Returns the brightness last configured, without reading the display.
+     * @return The brightness; 0-15
+     */
+    public synchronized int getBrightness() {
+        return brightness;
     }
 
     /**
@@ -219,14 +388,13 @@ public class HT16K33 extends I2cDeviceSynchDevice<I2cDeviceSynch> implements I2c
      * @param blinkRate Indicated blink rate; accepts 0-3 otherwise defaults to 0
      *                  0 = off, 1 = 2HZ, 2 = 1HZ, 3 = 0.5HZ
      */
-    public void setBlinkRate(int blinkRate) {
+    public synchronized void setBlinkRate(int blinkRate) {
         if(blinkRate >= 0 && blinkRate <= 3) {
             this.blinkRate = blinkRate;
-            write8(Command.DISPLAY_SETUP, (byte)(blinkRate * 2 + boolToByte(displayOn)), (byte)0);
         } else {
             this.blinkRate = 0;
-            write8(Command.DISPLAY_SETUP, (byte)(boolToByte(displayOn)), (byte)0);
         }
+        sentDisplaySetup = writeSetting(Command.DISPLAY_SETUP, this.blinkRate * 2 + boolToByte(displayOn), sentDisplaySetup);
     }
 
     /**
@@ -234,23 +402,218 @@ public class HT16K33 extends I2cDeviceSynchDevice<I2cDeviceSynch> implements I2c
      * @param color Indicated color
      *              true = on, false = off
      */
-    public void setFontColor(boolean color) {
+    public synchronized void setFontColor(boolean color) {
         fontColor = color;
     }
 
     /**
-     * Writes the data in displayBuffer to the display.
+     * Configures how the displayBuffer is sent to the display.
+     * @param bulkWrite Indicated write mode
+     *                  true = the whole display RAM in one transaction, false = one transaction per row
      */
-    public void writeDisplay() {
-        if(fontColor) {
-            for (byte i = 0; i < DISPLAY_WIDTH * 2; i += 2) {
-                write8(Command.DISPLAY_ADDRESS_POINTER, i, displayBuffer[i / 2]);
+    public synchronized void setBulkWrite(boolean bulkWrite) {
+        this.bulkWrite = bulkWrite;
+    }
+
+    /**
+     * Writes the data in displayBuffer to the display. Only the rows that changed since the last
+     * write are sent, and nothing is sent when the display already shows the displayBuffer.
+     */
+    public synchronized void writeDisplay() {
+        prepareDisplay();
+        sendDisplay();
+    }
+
+    /**
+     * Converts the displayBuffer to display RAM and finds the rows that changed since the last
+     * write, so the cost of sending them is known before anything is sent.
+     * @see #getPendingBytes()
+     * @see #getPendingTransactions()
+     */
+    synchronized void prepareDisplay() {
+        pendingFirst = -1;
+        pendingLast = -1;
+        int changedRows = 0;
+        for(int r = 0; r < DISPLAY_HEIGHT; r++) {
+            displayRam[r * 2] = fontColor ? displayBuffer[r] : (byte)~displayBuffer[r];
+            if(!sentRamValid || displayRam[r * 2] != sentRam[r * 2]) {
+                if(pendingFirst < 0) { pendingFirst = r; }
+                pendingLast = r;
+                changedRows++;
             }
+        }
+        if(pendingFirst < 0) {
+            pendingBytes = 0;
+            pendingTransactions = 0;
+        } else if(bulkWrite) {
+            int sent = (pendingLast - pendingFirst) * 2 + 1;
+            pendingBytes = 1 + (sent == DISPLAY_RAM_SIZE - 1 ? DISPLAY_RAM_SIZE : sent);
+            pendingTransactions = 1;
         } else {
-            for (byte i = 0; i < DISPLAY_WIDTH * 2; i += 2) {
-                write8(Command.DISPLAY_ADDRESS_POINTER, i, (byte)~displayBuffer[i / 2]);
+            pendingBytes = changedRows * 2;
+            pendingTransactions = changedRows;
+        }
+    }
+
+    /**
+     * Returns the bytes the last {@link #prepareDisplay()} found to be sent, including the
+     * register address that starts each transaction.
+     * @return The bytes, or 0 if the display already shows the displayBuffer
+     */
+    synchronized int getPendingBytes() {
+        return pendingBytes;
+    }
+
+    /**
+     * Returns the transactions the last {@link #prepareDisplay()} found to be sent.
+     * @return The transactions, or 0 if the display already shows the displayBuffer
+     */
+    synchronized int getPendingTransactions() {
+        return pendingTransactions;
+    }
+
+    /**
+     * Sends the rows found by the last {@link #prepareDisplay()}, without converting the
+     * displayBuffer again. Nothing is sent when the rows were already sent.
+     */
+    synchronized void sendDisplay() {
+        int first = pendingFirst;
+        int last = pendingLast;
+        int fullLength = bulkWrite ? DISPLAY_RAM_SIZE : DISPLAY_HEIGHT;
+        if(first < 0) {
+            metrics.recordDisplayWrite(0, fullLength);
+            return;
+        }
+
+        int sent;
+        if(bulkWrite) {
+            sent = (last - first) * 2 + 1;
+            if(sent == DISPLAY_RAM_SIZE - 1) {
+                sent = DISPLAY_RAM_SIZE;
+                write(Command.DISPLAY_ADDRESS_POINTER, (byte)0, displayRam);
+            } else {
+                if(ramSlices[sent] == null) {
+                    ramSlices[sent] = new byte[sent];
+                }
+                System.arraycopy(displayRam, first * 2, ramSlices[sent], 0, sent);
+                write(Command.DISPLAY_ADDRESS_POINTER, (byte)(first * 2), ramSlices[sent]);
+            }
+        } else {
+            sent = 0;
+            for(int r = first; r <= last; r++) {
+                if(!sentRamValid || displayRam[r * 2] != sentRam[r * 2]) {
+                    write8(Command.DISPLAY_ADDRESS_POINTER, (byte)(r * 2), displayRam[r * 2]);
+                    sent++;
+                }
             }
         }
+        System.arraycopy(displayRam, 0, sentRam, 0, DISPLAY_RAM_SIZE);
+        sentRamValid = true;
+        pendingFirst = -1;
+        pendingBytes = 0;
+        pendingTransactions = 0;
+
+        metrics.recordDisplayWrite(sent, fullLength - sent);
+    }
+
+    /**
+     * Returns the amount of display data bytes sent to the display.
+     * @return The bytes sent by {@link #writeDisplay()}
+     */
+    public long getBytesSent() {
+        return metrics.getDisplayBytesSent();
+    }
+
+    /**
+     * Returns the amount of display data bytes that did not need to be sent because the display
+     * already showed them.
+     * @return The bytes skipped by {@link #writeDisplay()}
+     */
+    public long getBytesSkipped() {
+        return metrics.getDisplayBytesSkipped();
+    }
+
+    /**
+     * Configures how often {@link #pollKeys()} reads the keys. Polls in between return no changes
+     * without using the I2C bus, so reading keys does not take bus time from writing the display.
+     * @param millis The minimum time between reads; 0 reads on every poll
+     */
+    public synchronized void setKeyScanInterval(int millis) {
+        keyScanInterval = Math.max(0, millis) * 1000000L;
+    }
+
+    /**
+     * Configures whether {@link #pollKeys()} checks the interrupt flag of the HT16K33 before
+     * reading the keys. While no key is held, this reads 1 byte instead of the whole key RAM.
+     * @param keyInterruptFlag Indicated read mode; true = read the interrupt flag first, false = always read the key RAM
+     */
+    public synchronized void setKeyInterruptFlag(boolean keyInterruptFlag) {
+        this.keyInterruptFlag = keyInterruptFlag;
+    }
+
+    /**
+     * Reads the keys of the key scan matrix and returns which ones changed since the last read.
+     * The whole key RAM is read in one transaction. Key scan column c (0-2) and row r (0-12) is
+     * bit 16 * c + r.
+     * @return The keys that were pressed or released, or 0 if nothing changed or the next read is not due yet
+     * @see #getKeys()
+     */
+    public synchronized long pollKeys() {
+        long now = System.nanoTime();
+        if(now - nextKeyScan < 0) {
+            return 0;
+        }
+        nextKeyScan = now + keyScanInterval;
+        if(keyInterruptFlag && keys == 0 && read8(INT_FLAG_ADDRESS) == 0) {
+            return 0;
+        }
+        byte[] keyRam = read(KEY_RAM_ADDRESS, KEY_RAM_SIZE);
+        long newKeys = 0;
+        for(int i = 0; i < KEY_RAM_SIZE; i++) {
+            newKeys |= (long)(keyRam[i] & 0xFF) << i * BYTE_LENGTH;
+        }
+        long changed = newKeys ^ keys;
+        keys = newKeys;
+        return changed;
+    }
+
+    /**
+     * Returns the keys held during the last read of {@link #pollKeys()}, without using the I2C bus.
+     * @return The keys, one bit per key the same as {@link #pollKeys()}
+     */
+    public synchronized long getKeys() {
+        return keys;
+    }
+
+    /**
+     * Returns the I2C metrics of the display, which are updated in place.
+     * @return The metrics of every read and write of the display
+     */
+    public I2cMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Replaces the displayBuffer with a tile, rotating it the same way {@link #drawPixel(byte, byte)}
+     * rotates single pixels.
+     * @param tile The 8x8 tile to load; see {@link Tiles} for the bit layout
+     * @param rotation The rotation of the tile, before the rotation offset is added; 0-3
+     */
+    synchronized void loadTile(long tile, int rotation) {
+        tile = Tiles.rotate(tile, (rotation + rotationOffset) % 4);
+        for(int r = 0; r < DISPLAY_HEIGHT; r++) {
+            displayBuffer[r] = toBufferRow(Tiles.row(tile, r));
+        }
+    }
+
+    /**
+     * Converts a row with its leftmost pixel in the lowest bit to the column order of the matrix,
+     * which is shifted by one column.
+     * @param row The row to convert
+     * @return The corresponding displayBuffer row
+     */
+    private static byte toBufferRow(int row) {
+        return (byte)(row >>> 1 | row << DISPLAY_WIDTH - 1);
     }
 
     /**
@@ -258,7 +621,7 @@ public class HT16K33 extends I2cDeviceSynchDevice<I2cDeviceSynch> implements I2c
      * @param y The y-coordinate of the pixel
      * @param x The x-coordinate of the pixel
      */
-    public void drawPixel(byte y, byte x) {
+    public synchronized void drawPixel(byte y, byte x) {
         if(x >= DISPLAY_WIDTH || y >= DISPLAY_HEIGHT || x < 0 || y < 0) { return; }
         switch(currentRotation) {
             case 1:
@@ -286,14 +649,27 @@ public class HT16K33 extends I2cDeviceSynchDevice<I2cDeviceSynch> implements I2c
      * @param y The y-coordinate of the top left pixel of the bitmap
      * @param bitmap The bitmap to be written to the displayBuffer
      */
-    public void drawBitmap(int x, int y, byte[][] bitmap) {
+    public synchronized void drawBitmap(int x, int y, byte[][] bitmap) {
+        if(x >= DISPLAY_WIDTH) { return; }
+        long tile = 0;
         for(int r = Math.max(0, y); r < DISPLAY_HEIGHT && r < y + bitmap.length; r++) {
-            for(int c = Math.max(0, x); c < DISPLAY_WIDTH && c < x + bitmap[0].length * BYTE_LENGTH; c++) {
-                if((bitmap[r - y][(c - x) / BYTE_LENGTH] >> BYTE_LENGTH - 1 - (c - x) % BYTE_LENGTH & 1) == 1) {
-                    drawPixel((byte)(r), (byte)(c));
+            byte[] row = bitmap[r - y];
+            if(row.length == 0) { continue; }
+            int bits;
+            if(x >= 0) {
+                bits = reverseByte(row[0]) << x;
+            } else {
+                int b = -x / BYTE_LENGTH;
+                if(b >= row.length) { continue; }
+                bits = reverseByte(row[b]);
+                if(b + 1 < row.length) {
+                    bits |= reverseByte(row[b + 1]) << BYTE_LENGTH;
                 }
+                bits >>>= -x % BYTE_LENGTH;
             }
+            tile |= (long)(bits & 0xFF) << r * 8;
         }
+        drawTile(tile);
     }
 
     /**
@@ -302,22 +678,45 @@ public class HT16K33 extends I2cDeviceSynchDevice<I2cDeviceSynch> implements I2c
      * @param y The y-coordinate of the top left pixel of the character
      * @param character The character to be written to the displayBuffer.
      */
-    public void drawCharacter(int x, int y, char character) {
-        for(int r = Math.max(0, y); r < DISPLAY_HEIGHT && r < y + CHARACTER_HEIGHT; r++) {
-            for(int c = Math.max(0, x); c < DISPLAY_WIDTH && c < x + CHARACTER_WIDTH; c++) {
-                if((CHARACTERS[((int)character - 32) * CHARACTER_WIDTH + (c - x)] >> r - y & 1) == 1) {
-                    drawPixel((byte)(r), (byte)(c));
-                }
-            }
+    public synchronized void drawCharacter(int x, int y, char character) {
+        orRotatedTile(GlyphCache.place(character, currentRotation, x, y));
+    }
+
+    /**
+     * Turns on the pixels of a tile in the displayBuffer, rotating it the same way
+     * {@link #drawPixel(byte, byte)} rotates single pixels.
+     * @param tile The 8x8 tile to draw; see {@link Tiles} for the bit layout
+     */
+    private void drawTile(long tile) {
+        orRotatedTile(Tiles.rotate(tile, currentRotation));
+    }
+
+    /**
+     * Turns on the pixels of an already rotated tile in the displayBuffer.
+     * @param tile The 8x8 tile to draw; see {@link Tiles} for the bit layout
+     */
+    private void orRotatedTile(long tile) {
+        if(tile == 0) { return; }
+        for(int r = 0; r < DISPLAY_HEIGHT; r++) {
+            displayBuffer[r] |= toBufferRow(Tiles.row(tile, r));
         }
     }
 
+    /**
+     * Reverses the bit order of a byte, so its leftmost pixel ends up in the lowest bit.
+     * @param b The byte to reverse
+     * @return The reversed byte
+     */
+    private static int reverseByte(byte b) {
+        return Integer.reverse(b) >>> 24;
+    }
+
     /**
      * Configures the amount of characters per line when printing a string.
      * @param lineLength The amount of characters per line. When set to 0 or lower, string will
      *                        not wrap.
      */
-    public void setLineLength(int lineLength) {
+    public synchronized void setLineLength(int lineLength) {
         this.lineLength = lineLength;
     }
 
@@ -327,24 +726,74 @@ public class HT16K33 extends I2cDeviceSynchDevice<I2cDeviceSynch> implements I2c
      * @param y The y-coordinate of the top left pixel of the String
      * @param message The String to be written to the displayBuffer
      */
-    public void print(int x, int y, String message) {
+    public synchronized void print(int x, int y, String message) {
+        print(x, y, (CharSequence)message);
+    }
+
+    /**
+     * Writes text to the displayBuffer, such as a StringBuilder that is reused every loop.
+     * Does not allocate unless the text is longer than any text printed before.
+     * @param x The x-coordinate of the top left pixel of the text
+     * @param y The y-coordinate of the top left pixel of the text
+     * @param message The text to be written to the displayBuffer
+     */
+    public synchronized void print(int x, int y, CharSequence message) {
+        int length = message.length();
+        if(textBuffer.length < length) {
+            textBuffer = new char[length];
+        }
+        for(int i = 0; i < length; i++) {
+            textBuffer[i] = message.charAt(i);
+        }
+        print(x, y, textBuffer, 0, length);
+    }
+
+    /**
+     * Writes a whole number to the displayBuffer without allocating.
+     * @param x The x-coordinate of the top left pixel of the number
+     * @param y The y-coordinate of the top left pixel of the number
+     * @param value The number to be written to the displayBuffer
+     */
+    public synchronized void print(int x, int y, int value) {
+        print(x, y, value, 0);
+    }
+
+    /**
+     * Writes a fixed-point number to the displayBuffer without allocating.
+     * @param x The x-coordinate of the top left pixel of the number
+     * @param y The y-coordinate of the top left pixel of the number
+     * @param value The number multiplied by 10^decimals; 1234 with 2 decimals is written as 12.34
+     * @param decimals The amount of digits after the decimal point; 0-18
+     */
+    public synchronized void print(int x, int y, long value, int decimals) {
+        int start = Digits.format(value, decimals, numberBuffer);
+        print(x, y, numberBuffer, start, numberBuffer.length - start);
+    }
+
+    /**
+     * Writes part of a char array to the displayBuffer without allocating.
+     * @param x The x-coordinate of the top left pixel of the text
+     * @param y The y-coordinate of the top left pixel of the text
+     * @param message The characters to be written to the displayBuffer
+     * @param offset The index of the first character to write
+     * @param length The amount of characters to write
+     */
+    public synchronized void print(int x, int y, char[] message, int offset, int length) {
 
         int msgWidth;
         int msgHeight;
         if(lineLength > 0) {
-            msgWidth = Math.min(lineLength, message.length());
-            msgHeight = (int) Math.ceil((double) message.length() / lineLength);
+            msgWidth = Math.min(lineLength, length);
+            msgHeight = (int) Math.ceil((double) length / lineLength);
         } else {
-            msgWidth = message.length();
+            msgWidth = length;
             msgHeight = 1;
         }
 
-        char[] characters = message.toCharArray();
-
         for(int r = Math.max(0, -y/(CHARACTER_HEIGHT + LEADING)); r < msgHeight && r < Math.ceil((double)-y/(CHARACTER_HEIGHT + LEADING)) + Math.ceil((double)DISPLAY_HEIGHT/(CHARACTER_HEIGHT + LEADING)); r++) {
             for(int c = Math.max(0, -x/(CHARACTER_WIDTH + TRACKING)); c < msgWidth && c < Math.ceil((double)-x/(CHARACTER_WIDTH + TRACKING)) + Math.ceil((double)DISPLAY_WIDTH/(CHARACTER_WIDTH + TRACKING)); c++) {
-                if(r * msgWidth + c < message.length()) {
-                    drawCharacter(x + c * (CHARACTER_WIDTH + TRACKING), y + r * (CHARACTER_HEIGHT + LEADING), characters[r * msgWidth + c]);
+                if(r * msgWidth + c < length) {
+                    drawCharacter(x + c * (CHARACTER_WIDTH + TRACKING), y + r * (CHARACTER_HEIGHT + LEADING), message[offset + r * msgWidth + c]);
                 }
             }
         }
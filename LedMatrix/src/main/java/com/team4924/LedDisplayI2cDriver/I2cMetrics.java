@@ -0,0 +1,200 @@
+package com.team4924.LedDisplayI2cDriver;
+
+/**
+ * Counts the I2C traffic of one {@link HT16K33} display: transactions, bytes, failed
+ * transactions, a latency histogram of the read and write calls, key scan reads, how many bytes of display data were
+ * sent or skipped because the display already showed them, and how many commands were skipped
+ * because the register already held their setting.
+ *
+ * The metrics are updated in place and reading them does not allocate, so they can be sent to
+ * telemetry from the loop of an OpMode.
+ */
+public class I2cMetrics {
+
+    /**
+     * The amount of latency buckets. Bucket i counts calls that took from 2^i up to 2^(i+1)
+     * nanoseconds, and the last bucket also counts everything slower.
+     */
+    public static final int LATENCY_BUCKETS = 32;
+
+    private long transactions;
+    private long bytes;
+    private long failures;
+    private long reads;
+    private long latencyNanos;
+    private long maxLatencyNanos;
+    private final long[] latencyHistogram = new long[LATENCY_BUCKETS];
+
+    private long displayBytesSent;
+    private long displayBytesSkipped;
+    private long commandsSkipped;
+
+    /**
+     * Records a successful write.
+     * @param bytes The bytes written, including the register address
+     * @param nanos How long the write call took
+     */
+    synchronized void recordWrite(int bytes, long nanos) {
+        recordTransaction(bytes, nanos);
+    }
+
+    /**
+     * Records a successful read.
+     * @param bytes The bytes transferred, including the register address
+     * @param nanos How long the read call took
+     */
+    synchronized void recordRead(int bytes, long nanos) {
+        reads++;
+        recordTransaction(bytes, nanos);
+    }
+
+    private void recordTransaction(int bytes, long nanos) {
+        transactions++;
+        this.bytes += bytes;
+        latencyNanos += nanos;
+        maxLatencyNanos = Math.max(maxLatencyNanos, nanos);
+        latencyHistogram[Math.min(LATENCY_BUCKETS - 1, 63 - Long.numberOfLeadingZeros(Math.max(1, nanos)))]++;
+    }
+
+    /**
+     * Records a read or write that threw an exception.
+     */
+    synchronized void recordFailure() {
+        failures++;
+    }
+
+    /**
+     * Records a command that was not written because the register already held its setting.
+     */
+    synchronized void recordSkippedCommand() {
+        commandsSkipped++;
+    }
+
+    /**
+     * Records how much of the display data was written to the display.
+     * @param sent The bytes of display data sent
+     * @param skipped The bytes of display data not sent because they did not change
+     */
+    synchronized void recordDisplayWrite(int sent, int skipped) {
+        displayBytesSent += sent;
+        displayBytesSkipped += skipped;
+    }
+
+    /**
+     * Returns the amount of successful read and write transactions.
+     * @return The transactions
+     */
+    public synchronized long getTransactions() {
+        return transactions;
+    }
+
+    /**
+     * Returns the amount of bytes transferred, including the register address of each transaction.
+     * @return The bytes
+     */
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Returns the amount of transactions that threw an exception.
+     * @return The failed transactions
+     */
+    public synchronized long getFailures() {
+        return failures;
+    }
+
+    /**
+     * Returns the amount of successful read transactions, which are also counted as transactions.
+     * @return The reads
+     */
+    public synchronized long getReads() {
+        return reads;
+    }
+
+    /**
+     * Returns the total time spent in read and write calls.
+     * @return The time in nanoseconds
+     */
+    public synchronized long getLatencyNanos() {
+        return latencyNanos;
+    }
+
+    /**
+     * Returns the time of the slowest read or write call.
+     * @return The time in nanoseconds
+     */
+    public synchronized long getMaxLatencyNanos() {
+        return maxLatencyNanos;
+    }
+
+    /**
+     * Returns the amount of read and write calls in a bucket of the latency histogram.
+     * @param bucket The bucket; 0 to {@link #LATENCY_BUCKETS} - 1
+     * @return The calls that took from 2^bucket up to 2^(bucket+1) nanoseconds
+     */
+    public synchronized long getLatencyCount(int bucket) {
+        return latencyHistogram[bucket];
+    }
+
+    /**
+     * Estimates a percentile of the read and write call latency from the histogram.
+     * @param percentile The percentile; 0-100
+     * @return The upper bound of the bucket containing the percentile, in nanoseconds
+     */
+    public synchronized long getLatencyPercentileNanos(double percentile) {
+        long target = (long)Math.ceil(transactions * percentile / 100);
+        long count = 0;
+        for(int i = 0; i < LATENCY_BUCKETS; i++) {
+            count += latencyHistogram[i];
+            if(count >= target && count > 0) {
+                return i == LATENCY_BUCKETS - 1 ? maxLatencyNanos : 2L << i;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Returns the amount of display data bytes sent to the display.
+     * @return The bytes
+     */
+    public synchronized long getDisplayBytesSent() {
+        return displayBytesSent;
+    }
+
+    /**
+     * Returns the amount of display data bytes that did not need to be sent because the display
+     * already showed them.
+     * @return The bytes
+     */
+    public synchronized long getDisplayBytesSkipped() {
+        return displayBytesSkipped;
+    }
+
+    /**
+     * Returns the amount of commands that did not need to be written because the register already
+     * held their setting.
+     * @return The commands
+     */
+    public synchronized long getCommandsSkipped() {
+        return commandsSkipped;
+    }
+
+    /**
+     * Resets all metrics to 0.
+     */
+    public synchronized void reset() {
+        transactions = 0;
+        bytes = 0;
+        failures = 0;
+        reads = 0;
+        latencyNanos = 0;
+        maxLatencyNanos = 0;
+        for(int i = 0; i < LATENCY_BUCKETS; i++) {
+            latencyHistogram[i] = 0;
+        }
+        displayBytesSent = 0;
+        displayBytesSkipped = 0;
+        commandsSkipped = 0;
+    }
+}
@@ -0,0 +1,76 @@
+package com.team4924.LedDisplayI2cDriver;
+
+/**
+ * A message rendered once as a single line into a wide packed strip of pixels, so it can be
+ * scrolled by copying the visible window instead of laying out and drawing every character again.
+ * Each row is stored as bytes with the leftmost pixel of each byte in its lowest bit.
+ */
+final class TextStrip {
+
+    private final Font font;
+    private final int width;
+    private final int height;
+    private final int bytesPerRow;
+    private final byte[] pixels;
+
+    /**
+     * @param message The message to render
+     * @param font The font to render the message in
+     */
+    TextStrip(String message, Font font) {
+        this.font = font;
+        int advance = 0;
+        for(int i = 0; i < message.length(); i++) {
+            advance += font.getAdvance(message.charAt(i));
+        }
+        width = advance;
+        height = font.getHeight();
+        bytesPerRow = (width + 7) / 8 + 1;
+        pixels = new byte[bytesPerRow * height];
+
+        int x = 0;
+        for(int i = 0; i < message.length(); i++) {
+            int glyph = font.getGlyph(message.charAt(i));
+            if(glyph >= 0) {
+                for(int r = 0; r < height; r++) {
+                    int bits = font.getRow(glyph, r) << (x & 7);
+                    pixels[r * bytesPerRow + (x >> 3)] |= (byte)bits;
+                    pixels[r * bytesPerRow + (x >> 3) + 1] |= (byte)(bits >>> 8);
+                }
+            }
+            x += font.getAdvance(glyph);
+        }
+    }
+
+    /**
+     * Returns the font the strip was rendered in.
+     * @return The font
+     */
+    Font getFont() {
+        return font;
+    }
+
+    /**
+     * Returns the width of the strip.
+     * @return The width in pixels, including the tracking after the last character
+     */
+    int getWidth() {
+        return width;
+    }
+
+    /**
+     * Draws the part of the strip that is visible in a framebuffer.
+     * @param framebuffer The framebuffer to draw in
+     * @param x The x-coordinate of the left edge of the strip; may be negative
+     * @param y The y-coordinate of the top edge of the strip
+     */
+    void draw(Framebuffer framebuffer, int x, int y) {
+        int first = Math.max(0, -x >> 3);
+        int last = Math.min(bytesPerRow, (framebuffer.getWidth() - x + 7) >> 3);
+        for(int r = Math.max(0, -y); r < height && y + r < framebuffer.getHeight(); r++) {
+            for(int b = first; b < last; b++) {
+                framebuffer.orRow8(x + b * 8, y + r, pixels[r * bytesPerRow + b]);
+            }
+        }
+    }
+}
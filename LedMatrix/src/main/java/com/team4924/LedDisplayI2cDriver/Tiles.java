@@ -0,0 +1,102 @@
+package com.team4924.LedDisplayI2cDriver;
+
+/**
+ * Bit operations on 8x8 tiles packed into a long. Bit (row * 8 + column) of a tile is the pixel
+ * in that row and column, so each byte of the long is one row with its leftmost pixel in the
+ * lowest bit.
+ */
+final class Tiles {
+
+    /**
+     * Multiplying a row by this repeats it in every row of a tile.
+     */
+    static final long EACH_ROW = 0x0101010101010101L;
+
+    private Tiles() {}
+
+    /**
+     * Returns a row of a tile.
+     * @param tile The tile to read from
+     * @param row The row to return; 0-7
+     * @return The pixels of the row, leftmost pixel in the lowest bit
+     */
+    static int row(long tile, int row) {
+        return (int)(tile >>> row * 8) & 0xFF;
+    }
+
+    /**
+     * Moves a tile by whole rows and columns. Pixels moved outside the tile are dropped.
+     * @param tile The tile to move
+     * @param columns The amount of columns to move right; negative moves left
+     * @param rows The amount of rows to move down; negative moves up
+     * @return The moved tile
+     */
+    static long shift(long tile, int columns, int rows) {
+        if(columns >= 8 || columns <= -8 || rows >= 8 || rows <= -8) {
+            return 0;
+        }
+        if(columns > 0) {
+            tile = tile << columns & EACH_ROW * (0xFF << columns & 0xFF);
+        } else if(columns < 0) {
+            tile = tile >>> -columns & EACH_ROW * (0xFF >>> -columns);
+        }
+        if(rows > 0) {
+            tile <<= rows * 8;
+        } else if(rows < 0) {
+            tile >>>= -rows * 8;
+        }
+        return tile;
+    }
+
+    /**
+     * Mirrors a tile across its diagonal, swapping rows and columns.
+     * @param tile The tile to transpose
+     * @return The transposed tile
+     */
+    static long transpose(long tile) {
+        long t;
+        t = (tile ^ (tile >>> 7)) & 0x00AA00AA00AA00AAL;
+        tile = tile ^ t ^ (t << 7);
+        t = (tile ^ (tile >>> 14)) & 0x0000CCCC0000CCCCL;
+        tile = tile ^ t ^ (t << 14);
+        t = (tile ^ (tile >>> 28)) & 0x00000000F0F0F0F0L;
+        return tile ^ t ^ (t << 28);
+    }
+
+    /**
+     * Mirrors a tile top to bottom.
+     * @param tile The tile to flip
+     * @return The flipped tile
+     */
+    static long flipRows(long tile) {
+        return Long.reverseBytes(tile);
+    }
+
+    /**
+     * Mirrors a tile left to right.
+     * @param tile The tile to flip
+     * @return The flipped tile
+     */
+    static long flipColumns(long tile) {
+        return Long.reverse(Long.reverseBytes(tile));
+    }
+
+    /**
+     * Rotates a tile the same way {@link HT16K33#drawPixel(byte, byte)} rotates single pixels.
+     * @param tile The tile to rotate
+     * @param rotation Indicated rotation; 0-3
+     * @return The rotated tile
+     */
+    static long rotate(long tile, int rotation) {
+        switch(rotation) {
+            case 1:
+                return flipColumns(transpose(tile));
+            case 2:
+                return Long.reverse(tile);
+            case 3:
+                return flipRows(transpose(tile));
+            default:
+                return tile;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.team4924.LedDisplayI2cDriver;
+
+import java.util.ArrayList;
+
+/**
+ * Describes where each {@link HT16K33} of a {@link Display} is placed in a grid of 8x8 tiles.
+ * Displays are placed one after another in the order they are wired, each at any free tile
+ * and with its own rotation offset, so grids with gaps, snake wiring and displays mounted upside
+ * down are all supported. Tiles without a display are drawn to but never shown.
+ *
+ * @see Display#Display(Topology, ArrayList)
+ */
+public class Topology {
+
+    private final int height;
+    private final int width;
+    private final int[] boards;
+    private final ArrayList<int[]> placements = new ArrayList<>();
+
+    /**
+     * Creates an empty topology.
+     * @param height The height of the grid in # tiles
+     * @param width The width of the grid in # tiles
+     */
+    public Topology(int height, int width) {
+        if(height <= 0 || width <= 0) {
+            throw new IllegalArgumentException("A topology needs at least one tile");
+        }
+        this.height = height;
+        this.width = width;
+        boards = new int[height * width];
+        for(int i = 0; i < boards.length; i++) {
+            boards[i] = -1;
+        }
+    }
+
+    /**
+     * Creates a topology with the displays ordered from left to right top to bottom.
+     * @param height The height of the grid in # displays
+     * @param width The width of the grid in # displays
+     * @return The topology
+     */
+    public static Topology grid(int height, int width) {
+        Topology topology = new Topology(height, width);
+        for(int row = 0; row < height; row++) {
+            for(int column = 0; column < width; column++) {
+                topology.place(row, column, 0);
+            }
+        }
+        return topology;
+    }
+
+    /**
+     * Creates a topology with the displays ordered from left to right on the top row, right to left
+     * on the next row and so on, for displays wired back and forth.
+     * @param height The height of the grid in # displays
+     * @param width The width of the grid in # displays
+     * @return The topology
+     */
+    public static Topology snake(int height, int width) {
+        Topology topology = new Topology(height, width);
+        for(int row = 0; row < height; row++) {
+            for(int column = 0; column < width; column++) {
+                topology.place(row, row % 2 == 0 ? column : width - 1 - column, 0);
+            }
+        }
+        return topology;
+    }
+
+    /**
+     * Places the next display.
+     * @param row The row of the tile shown by the display
+     * @param column The column of the tile shown by the display
+     * @param rotationOffset The rotation of the display relative to the grid; 0-3
+     * @return This topology
+     */
+    public Topology place(int row, int column, int rotationOffset) {
+        if(row < 0 || row >= height || column < 0 || column >= width) {
+            throw new IllegalArgumentException("Tile " + row + ", " + column + " is outside the " + height + "x" + width + " grid");
+        }
+        if(boards[row * width + column] != -1) {
+            throw new IllegalArgumentException("Tile " + row + ", " + column + " already has a display");
+        }
+        if(rotationOffset < 0 || rotationOffset > 3) {
+            throw new IllegalArgumentException("Rotation offset " + rotationOffset + " is not 0-3");
+        }
+        boards[row * width + column] = placements.size();
+        placements.add(new int[] {row, column, rotationOffset});
+        return this;
+    }
+
+    /**
+     * Returns the height of the grid.
+     * @return The height in # tiles
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Returns the width of the grid.
+     * @return The width in # tiles
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Returns the display showing a tile.
+     * @param row The row of the tile
+     * @param column The column of the tile
+     * @return The index of the display, in the order it was placed, or -1 if the tile has none
+     */
+    public int getBoard(int row, int column) {
+        return boards[row * width + column];
+    }
+
+    /**
+     * Returns the amount of displays placed.
+     * @return The displays
+     */
+    public int getBoardCount() {
+        return placements.size();
+    }
+
+    /**
+     * Returns the row of the tile shown by a display.
+     * @param board The index of the display, in the order it was placed
+     * @return The row
+     */
+    public int getRow(int board) {
+        return placements.get(board)[0];
+    }
+
+    /**
+     * Returns the column of the tile shown by a display.
+     * @param board The index of the display, in the order it was placed
+     * @return The column
+     */
+    public int getColumn(int board) {
+        return placements.get(board)[1];
+    }
+
+    /**
+     * Returns the rotation of a display relative to the grid.
+     * @param board The index of the display, in the order it was placed
+     * @return The rotation offset; 0-3
+     */
+    public int getRotationOffset(int board) {
+        return placements.get(board)[2];
+    }
+}
@@ -0,0 +1,29 @@
+package com.team4924.LedDisplayI2cDriver.benchmark;
+
+/**
+ * Bitmaps drawn by the benchmarks.
+ */
+final class Bitmaps {
+
+    static final byte[][] PANDA = {{
+            (byte)0b00000011, (byte)0b11000011},{
+            (byte)0b00000011, (byte)0b11000111},{
+            (byte)0b00100010, (byte)0b00000001},{
+            (byte)0b01000100, (byte)0b00000000},{
+            (byte)0b10001100, (byte)0b00000000},{
+            (byte)0b10001010, (byte)0b11000000},{
+            (byte)0b10001001, (byte)0b11001100},{
+            (byte)0b10001001, (byte)0b10001100},{
+            (byte)0b11001100, (byte)0b00000100},{
+            (byte)0b11001110, (byte)0b01110001},{
+            (byte)0b01101111, (byte)0b00100011},{
+            (byte)0b01111111, (byte)0b10001111},{
+            (byte)0b01111111, (byte)0b11111111},{
+            (byte)0b00111011, (byte)0b11000111},{
+            (byte)0b00011011, (byte)0b11001111},{
+            (byte)0b00000001, (byte)0b11101110}};
+
+    static final String MESSAGE = "Hello Pandas!";
+
+    private Bitmaps() {}
+}
@@ -0,0 +1,60 @@
+package com.team4924.LedDisplayI2cDriver.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Bus traffic reported next to the timing of a benchmark. JMH sums the counters of every
+ * iteration, so divide transactions, busBytes and busMicros by frames for the cost of one frame.
+ * The bus time is only modelled by {@link HT16K33Simulator}, so it is 0 for the other buses.
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.EVENTS)
+public class BusCounters {
+
+    public long frames;
+    public long transactions;
+    public long busBytes;
+    public long busMicros;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+        frames = 0;
+        transactions = 0;
+        busBytes = 0;
+        busMicros = 0;
+    }
+
+    /**
+     * Counts one written frame and moves the traffic of the buses into the counters.
+     * @param buses The buses the frame was written to
+     */
+    void frame(FakeI2cDeviceSynch[] buses) {
+        frames++;
+        for(FakeI2cDeviceSynch bus : buses) {
+            transactions += bus.getTransactions();
+            busBytes += bus.getBytes();
+            bus.reset();
+        }
+    }
+
+    /**
+     * Counts one written frame and moves the traffic and modelled time of the simulated buses
+     * into the counters.
+     * @param buses The simulated buses the frame was written to
+     */
+    void frame(HT16K33Simulator[] buses) {
+        frames++;
+        long busNanos = 0;
+        for(HT16K33Simulator bus : buses) {
+            transactions += bus.getTransactions();
+            busBytes += bus.getBytes();
+            busNanos += bus.getBusNanos();
+            bus.reset();
+        }
+        busMicros += busNanos / 1000;
+    }
+}
@@ -0,0 +1,110 @@
+package com.team4924.LedDisplayI2cDriver.benchmark;
+
+import com.team4924.LedDisplayI2cDriver.Constants;
+import com.team4924.LedDisplayI2cDriver.Display;
+import com.team4924.LedDisplayI2cDriver.HT16K33;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drawing and writing a {@link Display} made up of a grid of displays, with up to 8 displays
+ * on each bus.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DisplayBenchmark {
+
+    @Param({"1x1", "2x2", "4x4", "2x8"})
+    public String grid;
+
+    @Param({"0", "1", "2", "3"})
+    public int rotation;
+
+    private FakeI2cDeviceSynch[] buses;
+    private Display display;
+    private int step;
+
+    @Setup
+    public void setUp() {
+        int height = Integer.parseInt(grid.substring(0, grid.indexOf('x')));
+        int width = Integer.parseInt(grid.substring(grid.indexOf('x') + 1));
+        buses = new FakeI2cDeviceSynch[height * width];
+        ArrayList<HT16K33> displayBoards = new ArrayList<>();
+        for(int i = 0; i < buses.length; i++) {
+            buses[i] = new FakeI2cDeviceSynch("bus " + i / 8);
+            displayBoards.add(new HT16K33(buses[i].getDeviceClient()));
+        }
+        display = new Display(height, width, displayBoards);
+        display.setFontColor(Constants.LED_ON);
+        display.setRotation(rotation);
+    }
+
+    @Benchmark
+    public void drawBitmap() {
+        display.clear();
+        display.drawBitmap(-(step++ & 7), 0, Bitmaps.PANDA);
+    }
+
+    @Benchmark
+    public void print() {
+        display.clear();
+        display.print(-(step++ & 63), 0, Bitmaps.MESSAGE);
+    }
+
+    @Benchmark
+    public void printNumber() {
+        display.clear();
+        display.print(0, 0, step++ & 0xFFFF);
+    }
+
+    @Benchmark
+    public void printNumberString() {
+        display.clear();
+        display.print(0, 0, String.valueOf(step++ & 0xFFFF));
+    }
+
+    @Benchmark
+    public void scrollText() {
+        display.clear();
+        display.scrollText(step++ & 63, 0, Bitmaps.MESSAGE);
+    }
+
+    @Benchmark
+    public void writeDisplayScroll(BusCounters counters) {
+        display.clear();
+        display.scrollText(step++ & 63, 0, Bitmaps.MESSAGE);
+        display.writeDisplay();
+        counters.frame(buses);
+    }
+
+    @Benchmark
+    public void writeDisplayDigit(BusCounters counters) {
+        display.clearRegion(0, 0, 5, 7);
+        display.print(0, 0, step++ % 10);
+        display.writeDisplay();
+        counters.frame(buses);
+    }
+
+    @Benchmark
+    public void writeDisplayUnchanged(BusCounters counters) {
+        display.writeDisplay();
+        counters.frame(buses);
+    }
+}
@@ -0,0 +1,62 @@
+package com.team4924.LedDisplayI2cDriver.benchmark;
+
+import com.qualcomm.robotcore.hardware.I2cDeviceSynch;
+
+/**
+ * An in-memory stand-in for an {@link I2cDeviceSynch} that does not talk to any hardware, but
+ * counts the I2C transactions and bytes written to it. Reads return zeros and every other method
+ * of the interface does nothing.
+ */
+public final class FakeI2cDeviceSynch extends InMemoryI2cDevice {
+
+    private long transactions;
+    private long bytes;
+
+    /**
+     * @param busName The name of the bus the device is on; devices with the same name share a bus
+     */
+    public FakeI2cDeviceSynch(String busName) {
+        super(busName);
+    }
+
+    /**
+     * Returns the amount of write transactions since the last {@link #reset()}.
+     * @return The transactions
+     */
+    public long getTransactions() {
+        return transactions;
+    }
+
+    /**
+     * Returns the amount of bytes written since the last {@link #reset()}, including the register
+     * address that starts each transaction.
+     * @return The bytes
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Resets the transaction and byte counts.
+     */
+    public void reset() {
+        transactions = 0;
+        bytes = 0;
+    }
+
+    @Override
+    protected String getKind() {
+        return "Fake I2C device";
+    }
+
+    @Override
+    protected void write(int register, byte[] data) {
+        transactions++;
+        bytes += 1 + data.length;
+    }
+
+    @Override
+    protected byte[] read(int register, int length) {
+        return new byte[length];
+    }
+}
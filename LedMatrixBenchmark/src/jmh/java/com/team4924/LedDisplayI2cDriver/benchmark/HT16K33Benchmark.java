@@ -0,0 +1,78 @@
+package com.team4924.LedDisplayI2cDriver.benchmark;
+
+import com.team4924.LedDisplayI2cDriver.Constants;
+import com.team4924.LedDisplayI2cDriver.HT16K33;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drawing and writing a single {@link HT16K33} display.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HT16K33Benchmark {
+
+    @Param({"0", "1", "2", "3"})
+    public int rotation;
+
+    private FakeI2cDeviceSynch[] buses;
+    private HT16K33 display;
+    private int step;
+
+    @Setup
+    public void setUp() {
+        SanityChecks.checkDrawBitmap();
+        buses = new FakeI2cDeviceSynch[] { new FakeI2cDeviceSynch("bus 0") };
+        display = new HT16K33(buses[0].getDeviceClient());
+        display.setFontColor(Constants.LED_ON);
+        display.setRotation(rotation);
+    }
+
+    @Benchmark
+    public void drawBitmap() {
+        display.clear();
+        display.drawBitmap(-(step++ & 7), 0, Bitmaps.PANDA);
+    }
+
+    @Benchmark
+    public void drawCharacter() {
+        display.clear();
+        display.drawCharacter(1, 0, (char)('A' + (step++ & 15)));
+    }
+
+    @Benchmark
+    public void print() {
+        display.clear();
+        display.print(-(step++ & 63), 0, Bitmaps.MESSAGE);
+    }
+
+    @Benchmark
+    public void writeDisplayChanged(BusCounters counters) {
+        display.clear();
+        display.drawCharacter(1, 0, (char)('A' + (step++ & 1)));
+        display.writeDisplay();
+        counters.frame(buses);
+    }
+
+    @Benchmark
+    public void writeDisplayUnchanged(BusCounters counters) {
+        display.writeDisplay();
+        counters.frame(buses);
+    }
+}
@@ -0,0 +1,308 @@
+package com.team4924.LedDisplayI2cDriver.benchmark;
+
+import com.qualcomm.robotcore.hardware.I2cDeviceSynch;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * An in-memory HT16K33 behind an {@link I2cDeviceSynch}, for running displays on a plain JVM.
+ * It keeps the display RAM, the system setup, display setup and brightness commands, and the key
+ * RAM and interrupt flag of the chip, so what the panel would show can be checked after every
+ * write and saved as text or as a PBM image.
+ *
+ * Every transaction adds the time it would take on the I2C bus at the configured clock speed:
+ * 9 clocks per byte, including the address byte, a start and a stop, plus a fixed overhead per
+ * transaction. By default the time is only counted; with {@link #setRealTime(boolean)} every
+ * transaction also takes that long, so the timing of flush threads can be profiled.
+ */
+public final class HT16K33Simulator extends InMemoryI2cDevice {
+
+    /**
+     * The clock speed of an I2C bus in standard mode.
+     */
+    public static final int STANDARD_MODE_HZ = 100000;
+
+    /**
+     * The clock speed of an I2C bus in fast mode.
+     */
+    public static final int FAST_MODE_HZ = 400000;
+
+    private static final int RAM_SIZE = 16;
+    private static final int KEY_RAM_ADDRESS = 0x40;
+    private static final int KEY_RAM_SIZE = 6;
+    private static final int INT_FLAG_ADDRESS = 0x60;
+    private static final int CLOCKS_PER_BYTE = 9;
+
+    private final int clockHz;
+
+    private final byte[] ram = new byte[RAM_SIZE];
+    private final byte[] keyRam = new byte[KEY_RAM_SIZE];
+    private boolean keyInterrupt;
+    private boolean oscillatorOn;
+    private boolean displayOn;
+    private int blinkRate;
+    private int brightness;
+
+    private long overheadNanos;
+    private boolean realTime;
+    private long transactions;
+    private long bytes;
+    private long busNanos;
+
+    /**
+     * @param busName The name of the bus the device is on; devices with the same name share a bus
+     * @param clockHz The clock speed of the bus, such as {@link #STANDARD_MODE_HZ} or {@link #FAST_MODE_HZ}
+     */
+    public HT16K33Simulator(String busName, int clockHz) {
+        super(busName);
+        this.clockHz = clockHz;
+        brightness = 0xF;
+    }
+
+    /**
+     * Configures the time every transaction takes on top of its clocks, such as the time the
+     * controller takes to start a transaction.
+     * @param micros The overhead in microseconds; 0 by default
+     */
+    public synchronized void setTransactionOverhead(int micros) {
+        overheadNanos = Math.max(0, micros) * 1000L;
+    }
+
+    /**
+     * Configures whether every transaction takes as long as it would on the bus.
+     * @param realTime Indicated timing; true = wait for the modelled time, false = only count it
+     */
+    public synchronized void setRealTime(boolean realTime) {
+        this.realTime = realTime;
+    }
+
+    /**
+     * Returns the amount of transactions since the last {@link #reset()}.
+     * @return The transactions
+     */
+    public synchronized long getTransactions() {
+        return transactions;
+    }
+
+    /**
+     * Returns the amount of bytes sent or received since the last {@link #reset()}, including
+     * the register address that starts each transaction.
+     * @return The bytes
+     */
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Returns the time the transactions since the last {@link #reset()} would take on the bus.
+     * @return The time in nanoseconds
+     */
+    public synchronized long getBusNanos() {
+        return busNanos;
+    }
+
+    /**
+     * Resets the transaction, byte and time counts. The state of the chip is kept.
+     */
+    public synchronized void reset() {
+        transactions = 0;
+        bytes = 0;
+        busNanos = 0;
+    }
+
+    /**
+     * Returns whether the system oscillator is on.
+     * @return The last system setup written
+     */
+    public synchronized boolean isOscillatorOn() {
+        return oscillatorOn;
+    }
+
+    /**
+     * Returns whether the display is on.
+     * @return The last display setup written
+     */
+    public synchronized boolean isDisplayOn() {
+        return displayOn;
+    }
+
+    /**
+     * Returns the blink rate of the display.
+     * @return The blink rate; 0-3
+     */
+    public synchronized int getBlinkRate() {
+        return blinkRate;
+    }
+
+    /**
+     * Returns the brightness of the display.
+     * @return The brightness; 0-15
+     */
+    public synchronized int getBrightness() {
+        return brightness;
+    }
+
+    /**
+     * Returns a byte of the display RAM.
+     * @param address The address of the byte; 0-15
+     * @return The byte
+     */
+    public synchronized byte getRam(int address) {
+        return ram[address];
+    }
+
+    /**
+     * Returns whether a LED is lit. LEDs are only lit while the oscillator and the display are on.
+     * The matrix is wired with its columns shifted by one, so column c is bit c - 1 of its row.
+     * @param row The row of the LED; 0-7
+     * @param column The column of the LED; 0-7
+     * @return Whether the LED is lit
+     */
+    public synchronized boolean isLit(int row, int column) {
+        return oscillatorOn && displayOn && (ram[row * 2] >> (column + 7) % 8 & 1) == 1;
+    }
+
+    /**
+     * Presses keys of the key scan matrix, which the driver reads from the key RAM. The interrupt
+     * flag is set when any key is held and cleared when the key RAM is read.
+     * @param keys The keys held; key scan column c (0-2) and row r (0-12) is bit 16 * c + r
+     */
+    public synchronized void setKeys(long keys) {
+        for(int i = 0; i < KEY_RAM_SIZE; i++) {
+            keyRam[i] = (byte)(keys >>> i * 8);
+        }
+        keyInterrupt = keys != 0;
+    }
+
+    /**
+     * Draws the panel as 8 lines of text, '#' for a lit LED and '.' for a dark one.
+     * @return The panel
+     */
+    public String toAscii() {
+        return toAscii(new HT16K33Simulator[] { this }, 1, 1);
+    }
+
+    /**
+     * Draws a grid of panels as text, '#' for a lit LED and '.' for a dark one.
+     * @param boards The panels ordered from left to right top to bottom
+     * @param height The height of the grid in # panels
+     * @param width The width of the grid in # panels
+     * @return The grid, one line per row of LEDs
+     */
+    public static String toAscii(HT16K33Simulator[] boards, int height, int width) {
+        StringBuilder text = new StringBuilder();
+        for(int y = 0; y < height * 8; y++) {
+            for(int x = 0; x < width * 8; x++) {
+                text.append(isLit(boards, width, x, y) ? '#' : '.');
+            }
+            text.append('\n');
+        }
+        return text.toString();
+    }
+
+    /**
+     * Writes a grid of panels as a plain PBM image, one pixel per LED.
+     * @param out The stream to write the image to
+     * @param boards The panels ordered from left to right top to bottom
+     * @param height The height of the grid in # panels
+     * @param width The width of the grid in # panels
+     * @throws IOException If the stream cannot be written
+     */
+    public static void writePbm(OutputStream out, HT16K33Simulator[] boards, int height, int width) throws IOException {
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.US_ASCII);
+        writer.write("P1\n" + width * 8 + " " + height * 8 + "\n");
+        for(int y = 0; y < height * 8; y++) {
+            for(int x = 0; x < width * 8; x++) {
+                writer.write(x > 0 ? " " : "");
+                writer.write(isLit(boards, width, x, y) ? '1' : '0');
+            }
+            writer.write('\n');
+        }
+        writer.flush();
+    }
+
+    private static boolean isLit(HT16K33Simulator[] boards, int width, int x, int y) {
+        HT16K33Simulator board = boards[(y / 8) * width + x / 8];
+        return board != null && board.isLit(y % 8, x % 8);
+    }
+
+    @Override
+    protected String getKind() {
+        return "Simulated HT16K33";
+    }
+
+    /**
+     * Runs a command byte followed by data, as the chip does for one write transaction.
+     */
+    @Override
+    protected void write(int command, byte[] data) {
+        synchronized(this) {
+            switch(command & 0xF0) {
+                case 0x00:
+                    // The display RAM address pointer wraps around after the last row
+                    for(int i = 0; i < data.length; i++) {
+                        ram[(command + i) % RAM_SIZE] = data[i];
+                    }
+                    break;
+                case 0x20:
+                    oscillatorOn = (command & 1) == 1;
+                    break;
+                case 0x80:
+                    displayOn = (command & 1) == 1;
+                    blinkRate = command >> 1 & 3;
+                    break;
+                case 0xE0:
+                    brightness = command & 0xF;
+                    break;
+            }
+        }
+        transaction(CLOCKS_PER_BYTE * (2 + data.length) + 2, 1 + data.length);
+    }
+
+    /**
+     * Reads from the key RAM or the interrupt flag, as the chip does for a write of the address
+     * followed by a read transaction. Reading the key RAM clears the interrupt flag.
+     */
+    @Override
+    protected byte[] read(int address, int length) {
+        byte[] data = new byte[length];
+        synchronized(this) {
+            for(int i = 0; i < length; i++) {
+                int register = address + i;
+                if(register >= KEY_RAM_ADDRESS && register < KEY_RAM_ADDRESS + KEY_RAM_SIZE) {
+                    data[i] = keyRam[register - KEY_RAM_ADDRESS];
+                    keyInterrupt = false;
+                } else if(register == INT_FLAG_ADDRESS) {
+                    data[i] = (byte)(keyInterrupt ? 0xFF : 0);
+                }
+            }
+        }
+        transaction(CLOCKS_PER_BYTE * (3 + length) + 3, 1 + length);
+        return data;
+    }
+
+    /**
+     * Counts a transaction and the time it takes on the bus.
+     */
+    private void transaction(int clocks, int byteCount) {
+        long nanos = clocks * 1000000000L / clockHz + overheadNanos;
+        boolean wait;
+        synchronized(this) {
+            transactions++;
+            bytes += byteCount;
+            busNanos += nanos;
+            wait = realTime;
+        }
+        if(wait) {
+            long deadline = System.nanoTime() + nanos;
+            for(long left = nanos; left > 0; left = deadline - System.nanoTime()) {
+                LockSupport.parkNanos(left);
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.team4924.LedDisplayI2cDriver.benchmark;
+
+import com.qualcomm.robotcore.hardware.I2cAddr;
+import com.qualcomm.robotcore.hardware.I2cDeviceSynch;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/**
+ * The base of the in-memory devices behind an {@link I2cDeviceSynch}. It answers the address,
+ * connection info, name and identity methods of the interface and passes every write and read
+ * to the device; every other method of the interface does nothing.
+ */
+public abstract class InMemoryI2cDevice implements InvocationHandler {
+
+    private final String busName;
+    private final I2cDeviceSynch deviceClient;
+    private I2cAddr address;
+
+    /**
+     * @param busName The name of the bus the device is on; devices with the same name share a bus
+     */
+    protected InMemoryI2cDevice(String busName) {
+        this.busName = busName;
+        address = I2cAddr.create7bit(0x70);
+        deviceClient = (I2cDeviceSynch)Proxy.newProxyInstance(I2cDeviceSynch.class.getClassLoader(),
+                new Class<?>[] { I2cDeviceSynch.class }, this);
+    }
+
+    /**
+     * Returns the device client to give to the driver.
+     * @return The device client
+     */
+    public I2cDeviceSynch getDeviceClient() {
+        return deviceClient;
+    }
+
+    /**
+     * Returns what the device is, for its name and toString.
+     * @return The kind of device, such as "Fake I2C device"
+     */
+    protected abstract String getKind();
+
+    /**
+     * Writes data to the device in one write transaction.
+     * @param register The register address that starts the transaction
+     * @param data The bytes written after the register address
+     */
+    protected abstract void write(int register, byte[] data);
+
+    /**
+     * Reads data from the device, starting at a register.
+     * @param register The register address to read from
+     * @param length The amount of bytes to read
+     * @return The bytes read
+     */
+    protected abstract byte[] read(int register, int length);
+
+    @Override
+    public final Object invoke(Object proxy, Method method, Object[] args) {
+        switch(method.getName()) {
+            case "write8":
+                write((Integer)args[0], new byte[] { ((Number)args[1]).byteValue() });
+                return null;
+            case "write":
+                write((Integer)args[0], (byte[])args[1]);
+                return null;
+            case "read8":
+                return read((Integer)args[0], 1)[0];
+            case "read":
+                return read((Integer)args[0], (Integer)args[1]);
+            case "getI2cAddress":
+                return address;
+            case "setI2cAddress":
+                address = (I2cAddr)args[0];
+                return null;
+            case "getConnectionInfo":
+                return busName + "; addr7=0x" + Integer.toHexString(address.get7Bit());
+            case "getDeviceName":
+            case "toString":
+                return getKind() + " on " + busName;
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "equals":
+                return proxy == args[0];
+        }
+        Class<?> type = method.getReturnType();
+        if(type == boolean.class) {
+            return false;
+        } else if(type == int.class) {
+            return 0;
+        } else if(type == long.class) {
+            return 0L;
+        }
+        return null;
+    }
+}
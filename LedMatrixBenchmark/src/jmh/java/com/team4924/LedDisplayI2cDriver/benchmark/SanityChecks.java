@@ -0,0 +1,115 @@
+package com.team4924.LedDisplayI2cDriver.benchmark;
+
+import com.team4924.LedDisplayI2cDriver.Display;
+import com.team4924.LedDisplayI2cDriver.HT16K33;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Checks that the optimized drawing paths draw the same pixels as the plain ones they replaced.
+ * The benchmarks run these before measuring, so a benchmark never times a wrong result.
+ */
+final class SanityChecks {
+
+    private static final int BITMAP_CHECKS = 2000;
+    private static final int SNAPSHOT_CHECKS = 200;
+
+    private SanityChecks() {}
+
+    /**
+     * Draws random bitmaps, including empty and ragged rows, at random positions and rotations
+     * with {@link HT16K33#drawBitmap(int, int, byte[][])} and pixel by pixel with
+     * {@link HT16K33#drawPixel(byte, byte)}, and compares the display RAM written by both.
+     * @throws IllegalStateException If any bitmap is drawn differently
+     */
+    static void checkDrawBitmap() {
+        Random random = new Random(4924);
+        HT16K33Simulator blitBus = new HT16K33Simulator("blit", HT16K33Simulator.FAST_MODE_HZ);
+        HT16K33Simulator pixelBus = new HT16K33Simulator("pixel", HT16K33Simulator.FAST_MODE_HZ);
+        HT16K33 blit = new HT16K33(blitBus.getDeviceClient());
+        HT16K33 pixel = new HT16K33(pixelBus.getDeviceClient());
+        for(int i = 0; i < BITMAP_CHECKS; i++) {
+            byte[][] bitmap = new byte[random.nextInt(12)][];
+            for(int r = 0; r < bitmap.length; r++) {
+                bitmap[r] = new byte[random.nextInt(4)];
+                random.nextBytes(bitmap[r]);
+            }
+            int x = random.nextInt(30) - 20;
+            int y = random.nextInt(20) - 10;
+            int rotation = random.nextInt(4);
+
+            blit.setRotation(rotation);
+            blit.clear();
+            blit.drawBitmap(x, y, bitmap);
+            blit.writeDisplay();
+
+            pixel.setRotation(rotation);
+            pixel.clear();
+            for(int r = 0; r < bitmap.length; r++) {
+                for(int c = 0; c < bitmap[r].length * 8; c++) {
+                    if(x + c >= 0 && x + c < 8 && y + r >= 0 && y + r < 8 && (bitmap[r][c / 8] >> 7 - c % 8 & 1) == 1) {
+                        pixel.drawPixel((byte)(y + r), (byte)(x + c));
+                    }
+                }
+            }
+            pixel.writeDisplay();
+
+            for(int address = 0; address < 16; address++) {
+                if(blitBus.getRam(address) != pixelBus.getRam(address)) {
+                    throw new IllegalStateException("drawBitmap differs from drawPixel at x=" + x + " y=" + y
+                            + " rotation=" + rotation + " in display RAM byte " + address);
+                }
+            }
+        }
+    }
+
+    /**
+     * Draws random bitmaps with {@link Display#drawBitmap(int, int, byte[][])} on a 2x2 display of
+     * simulated panels and compares what the panels show, as {@link HT16K33Simulator#toAscii},
+     * with the pixels of the bitmap.
+     * @throws IllegalStateException If the panels show anything else than the bitmap
+     */
+    static void checkDisplaySnapshot() {
+        Random random = new Random(4924);
+        HT16K33Simulator[] buses = new HT16K33Simulator[4];
+        ArrayList<HT16K33> displayBoards = new ArrayList<>();
+        for(int i = 0; i < buses.length; i++) {
+            buses[i] = new HT16K33Simulator("snapshot", HT16K33Simulator.FAST_MODE_HZ);
+            HT16K33 displayBoard = new HT16K33(buses[i].getDeviceClient());
+            displayBoard.initialize();
+            displayBoards.add(displayBoard);
+        }
+        Display display = new Display(2, 2, displayBoards);
+        for(int i = 0; i < SNAPSHOT_CHECKS; i++) {
+            byte[][] bitmap = new byte[random.nextInt(20)][];
+            for(int r = 0; r < bitmap.length; r++) {
+                bitmap[r] = new byte[random.nextInt(4)];
+                random.nextBytes(bitmap[r]);
+            }
+            int x = random.nextInt(40) - 20;
+            int y = random.nextInt(40) - 20;
+
+            display.clear();
+            display.drawBitmap(x, y, bitmap);
+            display.writeDisplay();
+
+            StringBuilder expected = new StringBuilder();
+            for(int row = 0; row < 16; row++) {
+                for(int column = 0; column < 16; column++) {
+                    int r = row - y;
+                    int c = column - x;
+                    boolean lit = r >= 0 && r < bitmap.length && c >= 0 && c < bitmap[r].length * 8
+                            && (bitmap[r][c / 8] >> 7 - c % 8 & 1) == 1;
+                    expected.append(lit ? '#' : '.');
+                }
+                expected.append('\n');
+            }
+            String shown = HT16K33Simulator.toAscii(buses, 2, 2);
+            if(!shown.equals(expected.toString())) {
+                throw new IllegalStateException("Display shows a different frame for a bitmap at x=" + x + " y=" + y
+                        + "\nexpected:\n" + expected + "shown:\n" + shown);
+            }
+        }
+    }
+}
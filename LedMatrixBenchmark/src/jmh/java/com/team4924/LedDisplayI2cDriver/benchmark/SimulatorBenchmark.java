@@ -0,0 +1,83 @@
+package com.team4924.LedDisplayI2cDriver.benchmark;
+
+import com.team4924.LedDisplayI2cDriver.Display;
+import com.team4924.LedDisplayI2cDriver.HT16K33;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The scenes of DisplayTest16x16 written to simulated displays, with the time each frame would
+ * take on an I2C bus in standard and fast mode in the busMicros counter.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SimulatorBenchmark {
+
+    @Param({"2x2", "4x4"})
+    public String grid;
+
+    @Param({"100000", "400000"})
+    public int clockHz;
+
+    private HT16K33Simulator[] buses;
+    private Display display;
+    private int step;
+
+    @Setup
+    public void setUp() {
+        SanityChecks.checkDisplaySnapshot();
+        int height = Integer.parseInt(grid.substring(0, grid.indexOf('x')));
+        int width = Integer.parseInt(grid.substring(grid.indexOf('x') + 1));
+        buses = new HT16K33Simulator[height * width];
+        ArrayList<HT16K33> displayBoards = new ArrayList<>();
+        for(int i = 0; i < buses.length; i++) {
+            buses[i] = new HT16K33Simulator("bus " + i / 8, clockHz);
+            HT16K33 displayBoard = new HT16K33(buses[i].getDeviceClient());
+            displayBoard.initialize();
+            displayBoards.add(displayBoard);
+        }
+        display = new Display(height, width, displayBoards);
+        display.setLineLength(2);
+    }
+
+    @Benchmark
+    public void countdown(BusCounters counters) {
+        display.clear();
+        display.print(0, 0, 99 - step++ % 100);
+        display.writeDisplay();
+        counters.frame(buses);
+    }
+
+    @Benchmark
+    public void scrollText(BusCounters counters) {
+        display.clear();
+        display.scrollText(step++ & 63, 4, Bitmaps.MESSAGE);
+        display.writeDisplay();
+        counters.frame(buses);
+    }
+
+    @Benchmark
+    public void movePanda(BusCounters counters) {
+        display.clear();
+        display.drawBitmap((step++ & 15) - 8, 0, Bitmaps.PANDA);
+        display.writeDisplay();
+        counters.frame(buses);
+    }
+}